@@ -0,0 +1,151 @@
+package gui;
+
+import javafx.application.Platform;
+import model.Section;
+import model.Task;
+import model.TaskManager;
+import util.DatabaseUnavailableException;
+import util.JdbcProfiler;
+import util.StartupTimings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+
+/**
+ * The SectionLoader class loads the database in the background after the window is shown.
+ * It first fetches all section names in one query and hands them to the UI, then loads the
+ * tasks of each section one by one. Sections the user selects are moved to the front of the
+ * queue so they load next.
+ *
+ * All database access happens on the loader thread; every TaskManager mutation and UI callback
+ * is posted back to the JavaFX application thread with Platform.runLater.
+ *
+ * If the database is unavailable, the loader reports it through the offline callback and keeps
+ * retrying in the background until the database answers again.
+ */
+public class SectionLoader {
+
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final TaskManager taskManager;
+    private final BlockingDeque<String> queue = new LinkedBlockingDeque<>();
+    private final Thread worker;
+
+    private Consumer<List<String>> onSectionsListed = names -> { };
+    private Consumer<String> onSectionLoaded = name -> { };
+    private Runnable onFullyLoaded = () -> { };
+    private Runnable onOffline = () -> { };
+
+    public SectionLoader(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        this.worker = new Thread(this::run, "section-loader");
+        this.worker.setDaemon(true); // Never keep the JVM alive after the window is closed
+    }
+
+    /** Called on the FX thread once all section names are known (tasks still loading). */
+    public void setOnSectionsListed(Consumer<List<String>> onSectionsListed) {
+        this.onSectionsListed = onSectionsListed;
+    }
+
+    /** Called on the FX thread each time one section's tasks have been attached. */
+    public void setOnSectionLoaded(Consumer<String> onSectionLoaded) {
+        this.onSectionLoaded = onSectionLoaded;
+    }
+
+    /** Called on the FX thread after the last section has been loaded. */
+    public void setOnFullyLoaded(Runnable onFullyLoaded) {
+        this.onFullyLoaded = onFullyLoaded;
+    }
+
+    /** Called on the FX thread when loading is stalled because the database is unavailable. */
+    public void setOnOffline(Runnable onOffline) {
+        this.onOffline = onOffline;
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Moves a section to the front of the load queue, e.g. because the user just selected it.
+     * Does nothing if the section has already been loaded (or is being loaded right now).
+     */
+    public void prioritize(String sectionName) {
+        if (queue.remove(sectionName)) {
+            queue.addFirst(sectionName);
+            System.out.println("SectionLoader: Section '" + sectionName + "' moved to the front of the load queue.");
+        }
+    }
+
+    private void run() {
+        // Profiled as one action, so per-section loads show up as the N+1 they are
+        try (JdbcProfiler.Action action = JdbcProfiler.action("startupLoad")) {
+            load();
+        }
+    }
+
+    private void load() {
+        // Write changes journaled during a previous outage first, so the load below includes them
+        taskManager.replayOfflineJournal();
+
+        System.out.println("SectionLoader: Loading section names...");
+        Map<String, Section> sections = null;
+        while (sections == null) {
+            try {
+                sections = taskManager.fetchSectionsFromDatabase();
+            } catch (DatabaseUnavailableException e) {
+                waitForDatabase();
+            }
+        }
+        List<String> names = new ArrayList<>(sections.keySet());
+        queue.addAll(names);
+        Platform.runLater(() -> {
+            taskManager.registerPendingSections(names);
+            StartupTimings.mark("sectionsListed");
+            onSectionsListed.accept(names);
+        });
+
+        String sectionName;
+        while ((sectionName = queue.pollFirst()) != null) {
+            List<Task> tasks;
+            try {
+                tasks = taskManager.fetchTasksFromDatabase(sectionName);
+            } catch (DatabaseUnavailableException e) {
+                queue.addFirst(sectionName);
+                waitForDatabase();
+                continue;
+            }
+            String loadedName = sectionName;
+            Platform.runLater(() -> {
+                if (taskManager.completeSectionLoad(loadedName, tasks)) {
+                    onSectionLoaded.accept(loadedName);
+                }
+            });
+        }
+
+        // Queued after every completeSectionLoad above, so it runs once they have all been applied
+        Platform.runLater(() -> {
+            StartupTimings.mark("fullyLoaded");
+            StartupTimings.printSummary();
+            onFullyLoaded.run();
+        });
+        System.out.println("SectionLoader: All sections fetched from database.");
+    }
+
+    private void waitForDatabase() {
+        Platform.runLater(onOffline);
+        System.err.println("SectionLoader: Database unavailable, retrying in " + RETRY_DELAY_MILLIS + " ms.");
+        do {
+            try {
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } while (!taskManager.replayOfflineJournal());
+    }
+}
@@ -1,6 +1,10 @@
 package gui;
 
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -8,22 +12,52 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import model.Priority;
 import model.Section;
+import model.SectionSummary;
 import model.Task;
+import model.TaskChangeEvent;
 import model.TaskManager;
+import util.StartupTimings;
+import util.TaskArchive;
 
+import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 public class TaskManagerApp extends Application {
 
+    private static final int MAX_SEARCH_RESULTS = 200;
+    private static final Duration QUERY_REFRESH_DELAY = Duration.millis(250);
+
     private TaskManager taskManager;
+    private SectionLoader sectionLoader;
+    // Mutations write to the store, which can block for the connect or socket timeout when the database
+    // goes away, so they run here instead of on the FX thread. One thread keeps them in click order;
+    // the lists follow through change events.
+    private final ExecutorService mutationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
     private ListView<String> sectionListView;
     private ListView<Task> taskListView;
+    // The section whose tasks taskListView shows, or null while it shows search or "all tasks" results
+    private String displayedSection;
+    // The query behind search or "all tasks" results, re-run when a change event cannot be applied row by row
+    private Supplier<List<Task>> displayedQuery;
+    // While sections are loading each one sends SECTION_CHANGED, and every re-run walks all loaded
+    // tasks, so re-runs are batched: at most one per QUERY_REFRESH_DELAY until loading is done
+    private final PauseTransition queryRefresh = new PauseTransition(QUERY_REFRESH_DELAY);
 
     private TextField newSectionNameField;
     private TextField taskNameField;
@@ -34,7 +68,8 @@ public class TaskManagerApp extends Application {
     @Override
     public void start(Stage primaryStage) {
         System.out.println("TaskManagerApp: Starting application...");
-        taskManager = new TaskManager(); // Initialize TaskManager
+        taskManager = new TaskManager(false); // Data is streamed in by the SectionLoader after the window is shown
+        sectionLoader = new SectionLoader(taskManager);
         System.out.println("TaskManagerApp: TaskManager initialized.");
 
 
@@ -64,8 +99,25 @@ public class TaskManagerApp extends Application {
 
         sectionListView = new ListView<>();
         sectionListView.setPrefHeight(300);
+        sectionListView.setPlaceholder(new Label("Loading sections..."));
+        sectionListView.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(String sectionName, boolean empty) {
+                super.updateItem(sectionName, empty);
+                setStyle("");
+                setTooltip(null);
+                if (empty || sectionName == null) {
+                    setText(null);
+                } else if (taskManager.isSectionLoading(sectionName)) {
+                    setText(sectionName + " (loading...)");
+                } else {
+                    renderSectionSummary(this, sectionName);
+                }
+            }
+        });
         sectionListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
+                sectionLoader.prioritize(newVal);
                 updateTaskListView(newVal);
             }
         });
@@ -101,10 +153,15 @@ public class TaskManagerApp extends Application {
         removeTaskButton.setMaxWidth(Double.MAX_VALUE);
         removeTaskButton.setOnAction(e -> removeSelectedTask());
 
+        Button completeTaskButton = new Button("Complete Task");
+        completeTaskButton.setMaxWidth(Double.MAX_VALUE);
+        completeTaskButton.setOnAction(e -> completeSelectedTask());
+
         taskListView = new ListView<>();
         taskListView.setPrefHeight(300);
+        taskListView.setPlaceholder(new Label("No tasks"));
 
-        taskPanel.getChildren().addAll(taskLabel, taskNameField, priorityComboBox, dueDatePicker, addTaskButton, removeTaskButton, new Separator(), taskListView);
+        taskPanel.getChildren().addAll(taskLabel, taskNameField, priorityComboBox, dueDatePicker, addTaskButton, removeTaskButton, completeTaskButton, new Separator(), taskListView);
         root.setCenter(taskPanel);
 
         // --- Search and Sort Panel (Bottom) ---
@@ -125,43 +182,217 @@ public class TaskManagerApp extends Application {
         Button sortTasksButton = new Button("Sort All Tasks (Due Date & Priority)");
         sortTasksButton.setOnAction(e -> sortAndDisplayAllTasks());
 
-        searchSortPanel.getChildren().addAll(searchField, searchButton, showAllTasksButton, sortTasksButton);
-        root.setBottom(searchSortPanel);
-
+        Button searchArchiveButton = new Button("Search Archive");
+        searchArchiveButton.setOnAction(e -> searchArchive());
 
-        // Initial population of section list
-        updateSectionListView();
-        System.out.println("TaskManagerApp: Initial section list updated.");
+        searchSortPanel.getChildren().addAll(searchField, searchButton, searchArchiveButton, showAllTasksButton, sortTasksButton);
+        root.setBottom(searchSortPanel);
 
 
         Scene scene = new Scene(root, 800, 600);
         primaryStage.setScene(scene);
+        // show() only schedules rendering; the first frame has been laid out once the first pulse completes
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                StartupTimings.mark("firstFrame");
+            }
+        });
         primaryStage.show();
         System.out.println("TaskManagerApp: GUI displayed.");
+
+        // The lists follow the model through its change events instead of re-fetching after every action
+        queryRefresh.setOnFinished(e -> rerunDisplayedQuery());
+        subscribeToChanges();
+        sectionListView.getItems().setAll(taskManager.getSectionNames()); // Sections from the offline journal, if any
+
+        // Load the database in the background; the section list fills in as data arrives
+        sectionLoader.setOnSectionsListed(names -> {
+            sectionListView.setPlaceholder(new Label("No sections"));
+            System.out.println("TaskManagerApp: " + names.size() + " sections listed.");
+        });
+        sectionLoader.setOnFullyLoaded(this::archiveInBackground);
+        sectionLoader.setOnOffline(() ->
+                sectionListView.setPlaceholder(new Label("Database unavailable.\nWorking offline, retrying...")));
+        sectionLoader.start();
     }
 
-    private void updateSectionListView() {
-        System.out.println("TaskManagerApp: Updating section list view...");
-        sectionListView.getItems().setAll(taskManager.getSectionNames());
-        taskListView.getItems().clear();
-        sectionListView.getSelectionModel().clearSelection();
-        System.out.println("TaskManagerApp: Section list view updated. Number of sections: " + taskManager.getSectionNames().size());
+    // Section aggregates are maintained incrementally by Section, so rendering a cell is O(1)
+    private void renderSectionSummary(ListCell<String> cell, String sectionName) {
+        SectionSummary summary = taskManager.getSectionSummary(sectionName);
+        if (summary == null) {
+            cell.setText(sectionName);
+            return;
+        }
+        String text = sectionName + " (" + summary.getTaskCount() + ")";
+        if (summary.getOverdueCount() > 0) {
+            text += " - " + summary.getOverdueCount() + " overdue";
+            cell.setStyle("-fx-text-fill: #b00020;");
+        }
+        cell.setText(text);
+
+        StringBuilder details = new StringBuilder();
+        details.append("High: ").append(summary.getTaskCount(Priority.HIGH))
+                .append("  Moderate: ").append(summary.getTaskCount(Priority.MODERATE))
+                .append("  Low: ").append(summary.getTaskCount(Priority.LOW));
+        if (summary.getEarliestDueDate() != null) {
+            details.append("\nNext due: ").append(new SimpleDateFormat("MMM dd, yyyy").format(summary.getEarliestDueDate()));
+        }
+        cell.setTooltip(new Tooltip(details.toString()));
+    }
+
+    // Events are delivered on the FX thread, one at a time, as fast as they are applied
+    private void subscribeToChanges() {
+        taskManager.getChangePublisher().subscribe(new Flow.Subscriber<TaskChangeEvent>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(TaskChangeEvent event) {
+                applyChange(event);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                System.err.println("TaskManagerApp: Change stream failed: " + throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        }, Platform::runLater);
+    }
+
+    // Applies one model change to the lists. Handlers are idempotent, since a list may already
+    // have been re-read with the change in it (e.g. when a section was selected meanwhile).
+    private void applyChange(TaskChangeEvent event) {
+        String sectionName = event.getSectionName();
+        ObservableList<String> sections = sectionListView.getItems();
+        ObservableList<Task> tasks = taskListView.getItems();
+        switch (event.getType()) {
+            case SECTION_ADDED:
+                if (!sections.contains(sectionName)) {
+                    sections.add(sectionName);
+                }
+                break;
+            case SECTION_REMOVED:
+                removeSectionFromView(sectionName);
+                break;
+            case SECTION_CHANGED:
+                if (!taskManager.hasSection(sectionName)) {
+                    removeSectionFromView(sectionName);
+                    break;
+                }
+                if (!sections.contains(sectionName)) {
+                    sections.add(sectionName);
+                }
+                sectionListView.refresh(); // Counts, or the "(loading...)" marker
+                if (sectionName.equals(displayedSection)) {
+                    updateTaskListView(sectionName);
+                }
+                refreshQueryResults();
+                break;
+            case TASK_ADDED:
+                sectionListView.refresh();
+                if (sectionName.equals(displayedSection) && !tasks.contains(event.getTask())) {
+                    tasks.add(event.getTask());
+                }
+                break;
+            case TASK_REMOVED:
+                sectionListView.refresh();
+                tasks.remove(event.getTask()); // Also drops it from search and "all tasks" results
+                break;
+            case TASK_UPDATED:
+                sectionListView.refresh();
+                if (tasks.contains(event.getTask())) {
+                    taskListView.refresh();
+                }
+                break;
+            case RESET:
+                sections.setAll(taskManager.getSectionNames());
+                if (displayedSection != null) {
+                    updateTaskListView(displayedSection);
+                }
+                refreshQueryResults();
+                break;
+        }
+    }
+
+    private void removeSectionFromView(String sectionName) {
+        sectionListView.getItems().remove(sectionName);
+        if (sectionName.equals(displayedSection)) {
+            taskListView.getItems().clear();
+            displayedSection = null;
+        }
+        refreshQueryResults(); // The section's tasks may be among the results
+    }
+
+    // SECTION_CHANGED, SECTION_REMOVED and RESET do not say which tasks went away, so search and
+    // "all tasks" results are rebuilt from their query rather than patched
+    private void refreshQueryResults() {
+        if (displayedQuery == null) {
+            return;
+        }
+        if (taskManager.isFullyLoaded() && queryRefresh.getStatus() != Animation.Status.RUNNING) {
+            rerunDisplayedQuery();
+        } else {
+            queryRefresh.play(); // No-op while already running, so the changes until it ends share one re-run
+        }
+    }
+
+    private void rerunDisplayedQuery() {
+        if (displayedQuery != null) {
+            taskListView.getItems().setAll(displayedQuery.get());
+        }
+    }
+
+    // Keeps the working set small: completed and long past due tasks move to the archive once loading is done
+    private void archiveInBackground() {
+        Thread archiver = new Thread(taskManager::archiveTasks, "task-archiver"); // The lists follow through change events
+        archiver.setDaemon(true);
+        archiver.start();
     }
 
     private void updateTaskListView(String sectionName) {
         System.out.println("TaskManagerApp: Updating task list view for section: " + sectionName);
+        displayedSection = sectionName;
+        displayedQuery = null;
+        taskListView.setPlaceholder(new Label(taskManager.isSectionLoading(sectionName) ? "Loading tasks..." : "No tasks"));
         List<Task> tasks = taskManager.getTasksForSection(sectionName);
         taskListView.getItems().setAll(tasks);
         System.out.println("TaskManagerApp: Task list view updated. Number of tasks for '" + sectionName + "': " + tasks.size());
     }
 
+    // Runs a mutation on the writer thread; onFailure runs on the FX thread if it returns false
+    private void mutateInBackground(BooleanSupplier mutation, Runnable onFailure) {
+        mutationExecutor.execute(() -> {
+            boolean succeeded;
+            try {
+                succeeded = mutation.getAsBoolean();
+            } catch (RuntimeException e) {
+                System.err.println("TaskManagerApp: Background change failed: " + e);
+                succeeded = false;
+            }
+            if (!succeeded) {
+                Platform.runLater(onFailure);
+            }
+        });
+    }
+
     private void addSection() {
         String sectionName = newSectionNameField.getText().trim();
         if (!sectionName.isEmpty()) {
-            taskManager.addSection(sectionName);
-            updateSectionListView();
+            mutateInBackground(() -> taskManager.addSection(sectionName), () ->
+                    showAlert(Alert.AlertType.ERROR, "Save Error", "Section '" + sectionName + "' could not be saved."));
             newSectionNameField.clear();
-            System.out.println("TaskManagerApp: Section '" + sectionName + "' added.");
+            System.out.println("TaskManagerApp: Section '" + sectionName + "' submitted.");
         } else {
             showAlert(Alert.AlertType.WARNING, "Input Error", "Section name cannot be empty.");
         }
@@ -173,9 +404,9 @@ public class TaskManagerApp extends Application {
             Optional<ButtonType> result = showAlert(Alert.AlertType.CONFIRMATION, "Confirm Deletion",
                     "Are you sure you want to delete section '" + selectedSection + "' and all its tasks?");
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                taskManager.removeSection(selectedSection);
-                updateSectionListView();
-                System.out.println("TaskManagerApp: Section '" + selectedSection + "' removed.");
+                mutateInBackground(() -> taskManager.removeSection(selectedSection), () ->
+                        showAlert(Alert.AlertType.ERROR, "Delete Error", "Section '" + selectedSection + "' could not be deleted."));
+                System.out.println("TaskManagerApp: Removal of section '" + selectedSection + "' submitted.");
             }
         } else {
             showAlert(Alert.AlertType.WARNING, "Selection Error", "Please select a section to remove.");
@@ -188,6 +419,10 @@ public class TaskManagerApp extends Application {
             showAlert(Alert.AlertType.WARNING, "Selection Error", "Please select a section to add the task to.");
             return;
         }
+        if (taskManager.isSectionLoading(selectedSection)) {
+            showAlert(Alert.AlertType.INFORMATION, "Loading", "Section '" + selectedSection + "' is still loading. Please try again in a moment.");
+            return;
+        }
 
         String taskName = taskNameField.getText().trim();
         Priority priority = priorityComboBox.getSelectionModel().getSelectedItem();
@@ -201,10 +436,16 @@ public class TaskManagerApp extends Application {
         Date dueDate = Date.from(localDueDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
 
         Task newTask = new Task(taskName, priority, dueDate);
-        taskManager.addTask(selectedSection, newTask);
-        updateTaskListView(selectedSection);
+        mutateInBackground(() -> taskManager.addTask(selectedSection, newTask), () -> {
+            if (taskNameField.getText().isEmpty()) { // Give the input back, unless the user moved on
+                taskNameField.setText(taskName);
+                priorityComboBox.getSelectionModel().select(priority);
+                dueDatePicker.setValue(localDueDate);
+            }
+            showAlert(Alert.AlertType.ERROR, "Save Error", "Task '" + taskName + "' could not be saved. Please try again.");
+        });
         clearTaskInputFields();
-        System.out.println("TaskManagerApp: Task '" + taskName + "' added to section '" + selectedSection + "'.");
+        System.out.println("TaskManagerApp: Task '" + taskName + "' submitted for section '" + selectedSection + "'.");
     }
 
     private void removeSelectedTask() {
@@ -215,15 +456,32 @@ public class TaskManagerApp extends Application {
             Optional<ButtonType> result = showAlert(Alert.AlertType.CONFIRMATION, "Confirm Deletion",
                     "Are you sure you want to delete task '" + selectedTask.getName() + "' from section '" + selectedSection + "'?");
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                taskManager.removeTask(selectedSection, selectedTask);
-                updateTaskListView(selectedSection);
-                System.out.println("TaskManagerApp: Task '" + selectedTask.getName() + "' removed from section '" + selectedSection + "'.");
+                mutateInBackground(() -> taskManager.removeTask(selectedSection, selectedTask), () ->
+                        showAlert(Alert.AlertType.ERROR, "Delete Error", "Task '" + selectedTask.getName() + "' could not be deleted."));
+                System.out.println("TaskManagerApp: Removal of task '" + selectedTask.getName() + "' from section '" + selectedSection + "' submitted.");
             }
         } else {
             showAlert(Alert.AlertType.WARNING, "Selection Error", "Please select both a section and a task to remove.");
         }
     }
 
+    private void completeSelectedTask() {
+        String selectedSection = sectionListView.getSelectionModel().getSelectedItem();
+        Task selectedTask = taskListView.getSelectionModel().getSelectedItem();
+
+        if (selectedSection == null || selectedTask == null) {
+            showAlert(Alert.AlertType.WARNING, "Selection Error", "Please select both a section and a task to complete.");
+            return;
+        }
+        if (selectedTask.isCompleted()) {
+            showAlert(Alert.AlertType.INFORMATION, "Complete Task", "Task '" + selectedTask.getName() + "' is already completed.");
+            return;
+        }
+        mutateInBackground(() -> taskManager.completeTask(selectedSection, selectedTask), () ->
+                showAlert(Alert.AlertType.ERROR, "Save Error", "Task '" + selectedTask.getName() + "' could not be completed."));
+        System.out.println("TaskManagerApp: Completion of task '" + selectedTask.getName() + "' in section '" + selectedSection + "' submitted.");
+    }
+
     private void clearTaskInputFields() {
         taskNameField.clear();
         priorityComboBox.getSelectionModel().clearSelection();
@@ -244,16 +502,54 @@ public class TaskManagerApp extends Application {
             return;
         }
 
-        List<Task> results = taskManager.searchTasksByName(searchTerm);
+        Supplier<List<Task>> query = () -> findTasks(searchTerm);
+        List<Task> results = query.get();
         taskListView.getItems().setAll(results);
+        displayedSection = null;
+        displayedQuery = query;
         sectionListView.getSelectionModel().clearSelection();
         System.out.println("TaskManagerApp: Search results displayed. Found " + results.size() + " tasks for '" + searchTerm + "'.");
     }
 
+    // Ranked, typo-tolerant matches first; fall back to a plain substring scan (e.g. "ocer" in "groceries")
+    private List<Task> findTasks(String searchTerm) {
+        List<Task> results = taskManager.searchTasksFuzzy(searchTerm, MAX_SEARCH_RESULTS);
+        if (results.isEmpty()) {
+            results = taskManager.searchTasksByName(searchTerm);
+        }
+        return results;
+    }
+
+    private void searchArchive() {
+        System.out.println("TaskManagerApp: Search Archive button clicked.");
+        String searchTerm = searchField.getText().trim();
+        if (searchTerm.isEmpty()) {
+            showAlert(Alert.AlertType.INFORMATION, "Search Archive", "Please enter a search term.");
+            return;
+        }
+        List<TaskArchive.ArchivedTask> results = taskManager.searchArchive(searchTerm, MAX_SEARCH_RESULTS);
+        if (results.isEmpty()) {
+            showAlert(Alert.AlertType.INFORMATION, "Search Archive", "No archived tasks match '" + searchTerm + "'.");
+            return;
+        }
+        // Archived tasks are read-only, so they are listed in a dialog rather than in the task list
+        ListView<TaskArchive.ArchivedTask> resultList = new ListView<>();
+        resultList.getItems().setAll(results);
+        resultList.setPrefSize(500, 300);
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Search Archive");
+        alert.setHeaderText(results.size() + " archived task(s) matching '" + searchTerm + "'");
+        alert.getDialogPane().setContent(resultList);
+        alert.showAndWait();
+        System.out.println("TaskManagerApp: Archive search displayed " + results.size() + " tasks for '" + searchTerm + "'.");
+    }
+
     private void sortAndDisplayAllTasks() {
         System.out.println("TaskManagerApp: Sort All Tasks button clicked.");
         List<Task> sortedTasks = taskManager.getSortedTasksByDueDateAndPriority();
         taskListView.getItems().setAll(sortedTasks);
+        displayedSection = null;
+        displayedQuery = taskManager::getSortedTasksByDueDateAndPriority;
         sectionListView.getSelectionModel().clearSelection();
         System.out.println("TaskManagerApp: Sorted tasks displayed. Total tasks: " + sortedTasks.size());
     }
@@ -262,6 +558,8 @@ public class TaskManagerApp extends Application {
         System.out.println("TaskManagerApp: Display All Tasks button clicked.");
         List<Task> allTasks = taskManager.getAllTasks();
         taskListView.getItems().setAll(allTasks);
+        displayedSection = null;
+        displayedQuery = taskManager::getAllTasks;
         sectionListView.getSelectionModel().clearSelection();
         System.out.println("TaskManagerApp: All tasks displayed. Total tasks: " + allTasks.size());
     }
@@ -0,0 +1,85 @@
+package loadtest;
+
+/**
+ * The LatencyRecorder class collects latency samples (in nanoseconds) for one operation type in a
+ * fixed-size log-bucket histogram: every power of two is split into 32 linear buckets, so a value
+ * is stored within about 3% of its true size and memory stays constant however long the run is.
+ * Each worker thread owns its own recorders, so recording needs no synchronization; recorders are
+ * merged once the run is over by adding their buckets.
+ */
+public class LatencyRecorder {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below SUB_BUCKETS get one bucket each; every higher power of two gets SUB_BUCKETS
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count = 0;
+    private long max = 0;
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucketIndex(value)]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @param percentile A value between 0 and 100, e.g. 99.9.
+     * @return The upper bound of the bucket holding that percentile (nearest-rank), in nanoseconds,
+     *         never above the largest recorded sample, or 0 if there are no samples.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, Math.min(count, (long) Math.ceil(percentile / 100.0 * count)));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(max, bucketUpperBound(i));
+            }
+        }
+        return max;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BUCKET_BITS
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long upper = ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
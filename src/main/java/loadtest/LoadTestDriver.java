@@ -0,0 +1,258 @@
+package loadtest;
+
+import model.Task;
+import model.TaskManager;
+import util.InMemoryTaskStore;
+import util.OfflineJournal;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The LoadTestDriver class is a headless load generator for TaskManager. It fills an in-memory
+ * store with synthetic sections and tasks, then runs a weighted mix of operations from many
+ * threads for a fixed time and reports throughput and latency percentiles per operation.
+ * No JavaFX, MySQL or network is involved.
+ *
+ * Usage (all arguments optional):
+ *   --sections=200 --tasks=100000 --threads=8 --warmup=5 --duration=30 --seed=42
+ *   --zipf=1.1 --mix=add:20,remove:10,search:40,sort:5,load:25
+ *
+ * If a worker thread dies with an uncaught exception, its stack trace goes to the real stderr,
+ * the report is marked FAILED and the process exits with status 1.
+ *
+ * Operations:
+ *   add    - TaskManager.addTask on a Zipf-distributed section
+ *   remove - TaskManager.removeTask of a task from a Zipf-distributed section
+ *   search - TaskManager.searchTasksFuzzy (top 20) with a vocabulary word, sometimes misspelled
+ *   sort   - TaskManager.getSortedTasksByDueDateAndPriority over all tasks
+ *   load   - TaskManager.getTasksForSection, i.e. what the UI does when a section is selected
+ */
+public class LoadTestDriver {
+
+    enum Operation { ADD, REMOVE, SEARCH, SORT, LOAD }
+
+    private static final int SEARCH_LIMIT = 20;
+
+    private final Map<String, String> options;
+    private final PrintStream out;
+    private final PrintStream errors;
+    private final AtomicInteger failedWorkers = new AtomicInteger();
+
+    public LoadTestDriver(Map<String, String> options, PrintStream out, PrintStream errors) {
+        this.options = options;
+        this.out = out;
+        this.errors = errors;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("LoadTestDriver: Ignoring argument '" + arg + "' (expected --name=value).");
+                continue;
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        // TaskManager logs every call to stdout/stderr (including expected races such as two threads
+        // removing the same task); at load-test volumes that would dominate the measurements.
+        // Worker failures are still reported on the saved stderr, see runPhase
+        PrintStream report = System.out;
+        PrintStream errors = System.err;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(discard);
+        System.setErr(discard);
+        boolean passed;
+        try {
+            passed = new LoadTestDriver(options, report, errors).run();
+        } finally {
+            System.setOut(report);
+            System.setErr(errors);
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return false if any worker thread died with an uncaught exception.
+     */
+    public boolean run() throws InterruptedException {
+        int sections = intOption("sections", 200);
+        int tasks = intOption("tasks", 100_000);
+        int threads = intOption("threads", Runtime.getRuntime().availableProcessors());
+        int warmupSeconds = intOption("warmup", 5);
+        int durationSeconds = intOption("duration", 30);
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double zipf = Double.parseDouble(options.getOrDefault("zipf", "1.1"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "add:20,remove:10,search:40,sort:5,load:25"));
+
+        SyntheticData data = new SyntheticData(seed, sections, zipf);
+        TaskManager taskManager = new TaskManager(new InMemoryTaskStore(), new OfflineJournal(null), false);
+
+        out.println("LoadTestDriver: Generating " + sections + " sections and " + tasks + " tasks...");
+        long populateStart = System.nanoTime();
+        for (int i = 0; i < sections; i++) {
+            taskManager.addSection(SyntheticData.sectionName(i));
+        }
+        for (int i = 0; i < tasks; i++) {
+            taskManager.addTask(data.randomSection(), data.randomTask());
+        }
+        out.printf("LoadTestDriver: Populated in %.1f s.%n", (System.nanoTime() - populateStart) / 1e9);
+
+        out.println("LoadTestDriver: Warming up for " + warmupSeconds + " s with " + threads + " threads...");
+        runPhase(taskManager, data, mix, threads, warmupSeconds);
+
+        out.println("LoadTestDriver: Measuring for " + durationSeconds + " s with " + threads + " threads, mix " + mix + "...");
+        long measureStart = System.nanoTime();
+        Map<Operation, LatencyRecorder> results = runPhase(taskManager, data, mix, threads, durationSeconds);
+        double elapsedSeconds = (System.nanoTime() - measureStart) / 1e9;
+
+        printReport(results, elapsedSeconds, taskManager.getAllTasks().size());
+        return failedWorkers.get() == 0;
+    }
+
+    private Map<Operation, LatencyRecorder> runPhase(TaskManager taskManager, SyntheticData data,
+                                                     Map<Operation, Integer> mix, int threads, int seconds)
+            throws InterruptedException {
+        Operation[] weighted = expandMix(mix);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Map<Operation, LatencyRecorder>> perThread = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            Map<Operation, LatencyRecorder> recorders = newRecorders();
+            perThread.add(recorders);
+            Thread worker = new Thread(() -> {
+                try {
+                    Random rnd = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = weighted[rnd.nextInt(weighted.length)];
+                        long start = System.nanoTime();
+                        execute(operation, taskManager, data, rnd);
+                        recorders.get(operation).record(System.nanoTime() - start);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-worker-" + t);
+            worker.setDaemon(true);
+            worker.setUncaughtExceptionHandler((thread, e) -> {
+                failedWorkers.incrementAndGet();
+                synchronized (errors) {
+                    errors.println("LoadTestDriver: Worker " + thread.getName() + " died:");
+                    e.printStackTrace(errors);
+                }
+            });
+            worker.start();
+        }
+        done.await();
+
+        Map<Operation, LatencyRecorder> merged = newRecorders();
+        for (Map<Operation, LatencyRecorder> recorders : perThread) {
+            for (Operation operation : Operation.values()) {
+                merged.get(operation).merge(recorders.get(operation));
+            }
+        }
+        return merged;
+    }
+
+    private static void execute(Operation operation, TaskManager taskManager, SyntheticData data, Random rnd) {
+        switch (operation) {
+            case ADD:
+                taskManager.addTask(data.randomSection(rnd), data.randomTask(rnd));
+                break;
+            case REMOVE:
+                String sectionName = data.randomSection(rnd);
+                List<Task> tasks = taskManager.getTasksForSection(sectionName);
+                if (!tasks.isEmpty()) {
+                    taskManager.removeTask(sectionName, tasks.get(rnd.nextInt(tasks.size())));
+                }
+                break;
+            case SEARCH:
+                taskManager.searchTasksFuzzy(data.randomQuery(rnd), SEARCH_LIMIT);
+                break;
+            case SORT:
+                taskManager.getSortedTasksByDueDateAndPriority();
+                break;
+            case LOAD:
+                taskManager.getTasksForSection(data.randomSection(rnd));
+                break;
+        }
+    }
+
+    private void printReport(Map<Operation, LatencyRecorder> results, double elapsedSeconds, int finalTaskCount) {
+        out.println();
+        out.printf("LoadTestDriver: %.1f s measured, %d tasks at the end of the run%n", elapsedSeconds, finalTaskCount);
+        out.printf("%-8s %10s %10s %10s %10s %10s %10s %10s%n",
+                "op", "count", "ops/s", "p50(us)", "p95(us)", "p99(us)", "p999(us)", "max(us)");
+        long totalCount = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder recorder = results.get(operation);
+            if (recorder.getCount() == 0) {
+                continue;
+            }
+            totalCount += recorder.getCount();
+            out.printf("%-8s %10d %10.0f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operation.name().toLowerCase(), recorder.getCount(), recorder.getCount() / elapsedSeconds,
+                    recorder.percentile(50) / 1e3, recorder.percentile(95) / 1e3, recorder.percentile(99) / 1e3,
+                    recorder.percentile(99.9) / 1e3, recorder.max() / 1e3);
+        }
+        out.printf("%-8s %10d %10.0f%n", "total", totalCount, totalCount / elapsedSeconds);
+        if (failedWorkers.get() > 0) {
+            out.println("LoadTestDriver: FAILED - " + failedWorkers.get()
+                    + " worker thread(s) died with an uncaught exception (see stderr); results are incomplete.");
+        }
+    }
+
+    private static Map<Operation, LatencyRecorder> newRecorders() {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + part + "', expected op:weight");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix '" + mix + "' has no positive weights");
+        }
+        return weights;
+    }
+
+    // One array slot per unit of weight, so picking an operation is a single random index
+    private static Operation[] expandMix(Map<Operation, Integer> mix) {
+        List<Operation> slots = new ArrayList<>();
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                slots.add(entry.getKey());
+            }
+        }
+        return slots.toArray(new Operation[0]);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, Integer.toString(defaultValue)));
+    }
+}
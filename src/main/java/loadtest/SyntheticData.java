@@ -0,0 +1,135 @@
+package loadtest;
+
+import model.Priority;
+import model.Task;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * The SyntheticData class generates sections, tasks and search queries with roughly realistic
+ * distributions:
+ * - Section popularity follows a Zipf distribution (a few big sections, a long tail of small ones).
+ * - Priorities are skewed towards LOW (45% LOW, 35% MODERATE, 20% HIGH).
+ * - Due dates cluster in the next two weeks with a long tail; about 15% are already overdue.
+ * - Task names are "verb object" phrases, sometimes with a number, so names repeat and share words.
+ * - Search queries are words from the same vocabulary, a third of them with a typo.
+ */
+public class SyntheticData {
+
+    private static final String[] VERBS = {
+            "buy", "call", "fix", "write", "review", "clean", "plan", "book", "pay", "email",
+            "submit", "prepare", "schedule", "update", "organize", "renew", "return", "finish"
+    };
+    private static final String[] OBJECTS = {
+            "groceries", "report", "dentist appointment", "car service", "invoice", "presentation",
+            "kitchen", "budget", "flight", "birthday gift", "taxes", "garden", "team meeting", "slides",
+            "pull request", "homework", "insurance", "passport", "library books", "gym membership",
+            "quarterly review", "newsletter", "backup", "laundry", "client proposal", "expense claim"
+    };
+    private static final String[] SECTION_WORDS = {
+            "Work", "Home", "Errands", "Finance", "Health", "Study", "Family", "Projects", "Travel", "Hobbies"
+    };
+
+    private final Random random;
+    private final int sectionCount;
+    private final double[] sectionCdf;
+
+    /**
+     * @param seed Seed for reproducible data sets.
+     * @param sectionCount How many distinct sections to spread tasks over.
+     * @param zipfExponent Skew of section popularity; 0 is uniform, around 1 is typical.
+     */
+    public SyntheticData(long seed, int sectionCount, double zipfExponent) {
+        this.random = new Random(seed);
+        this.sectionCount = sectionCount;
+        this.sectionCdf = new double[sectionCount];
+        double total = 0;
+        for (int i = 0; i < sectionCount; i++) {
+            total += 1.0 / Math.pow(i + 1, zipfExponent);
+            sectionCdf[i] = total;
+        }
+        for (int i = 0; i < sectionCount; i++) {
+            sectionCdf[i] /= total;
+        }
+    }
+
+    public int getSectionCount() {
+        return sectionCount;
+    }
+
+    public static String sectionName(int index) {
+        return SECTION_WORDS[index % SECTION_WORDS.length] + " " + (index / SECTION_WORDS.length + 1);
+    }
+
+    /**
+     * @return A section name drawn from the Zipf distribution.
+     */
+    public String randomSection(Random rnd) {
+        double u = rnd.nextDouble();
+        int low = 0;
+        int high = sectionCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sectionCdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return sectionName(low);
+    }
+
+    public String randomSection() {
+        return randomSection(random);
+    }
+
+    public Task randomTask() {
+        return randomTask(random);
+    }
+
+    public Task randomTask(Random rnd) {
+        String name = VERBS[rnd.nextInt(VERBS.length)] + " " + OBJECTS[rnd.nextInt(OBJECTS.length)];
+        if (rnd.nextInt(4) == 0) {
+            name += " #" + rnd.nextInt(10_000);
+        }
+        return new Task(name, randomPriority(rnd), randomDueDate(rnd));
+    }
+
+    /**
+     * @return A single search word from the task vocabulary, with a typo a third of the time.
+     */
+    public String randomQuery(Random rnd) {
+        String phrase = rnd.nextBoolean() ? VERBS[rnd.nextInt(VERBS.length)] : OBJECTS[rnd.nextInt(OBJECTS.length)];
+        String word = phrase.split(" ")[0];
+        if (word.length() > 3 && rnd.nextInt(3) == 0) {
+            int position = 1 + rnd.nextInt(word.length() - 2);
+            word = word.substring(0, position) + word.substring(position + 1); // Drop a letter
+        }
+        return word;
+    }
+
+    private static Priority randomPriority(Random rnd) {
+        int roll = rnd.nextInt(100);
+        if (roll < 45) {
+            return Priority.LOW;
+        } else if (roll < 80) {
+            return Priority.MODERATE;
+        }
+        return Priority.HIGH;
+    }
+
+    private static Date randomDueDate(Random rnd) {
+        int offsetDays;
+        if (rnd.nextInt(100) < 15) {
+            offsetDays = -1 - rnd.nextInt(30); // Overdue
+        } else {
+            // Exponential with a mean of ten days, capped at half a year
+            offsetDays = (int) Math.min(180, -10 * Math.log(1 - rnd.nextDouble()));
+        }
+        LocalDate dueDate = LocalDate.now().plusDays(offsetDays);
+        return Date.from(dueDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
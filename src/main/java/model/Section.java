@@ -1,8 +1,13 @@
 package model;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;      // for Collections.unmodifiableList
+import java.util.Date;
 import java.util.List;             // for List interface
+import java.util.Map;
+import java.util.TreeMap;
 
 public class Section
 {
@@ -10,11 +15,21 @@ public class Section
     private String name;
     private List<Task> tasks;
 
+    // Aggregates maintained on every add/remove, so reading them never walks the task list.
+    // Tasks must not have their priority or due date changed while they are in a section;
+    // remove them and add them again instead. Complete them through completeTask().
+    private int[] countByPriority = new int[Priority.values().length];
+    private TreeMap<Long, Integer> dueDateCounts = new TreeMap<>(); // due date (millis) -> number of open tasks
+    private int overdueCount = 0;
+    private long overdueCutoff;      // start of "today" that overdueCount was computed against
+    private long nextCutoffMillis;   // start of "tomorrow": overdueCount must be recomputed from then on
+
     // Constructor
     public Section(String sectionName)
     {
         this.name = sectionName;
         this.tasks = new ArrayList<>();
+        updateOverdueCutoff(System.currentTimeMillis());
     }
 
     //Setters and Getters
@@ -26,16 +41,111 @@ public class Section
         return Collections.unmodifiableList(tasks); // Correctly returns an unmodifiable view
     }
 
-    public void addTask(Task task)
+    public synchronized void addTask(Task task)
     {
         if (task != null) {
             tasks.add(task);
+            countByPriority[task.getPriority().ordinal()]++;
+            if (!task.isCompleted()) {
+                addOpenDueDate(task.getDueDate().getTime());
+            }
         }
     }
-    public boolean removeTask(Task task)
+    public synchronized boolean removeTask(Task task)
     {
-        return tasks.remove(task);
+        boolean removed = tasks.remove(task);
+        if (removed) {
+            countByPriority[task.getPriority().ordinal()]--;
+            if (!task.isCompleted()) {
+                removeOpenDueDate(task.getDueDate().getTime());
+            }
+        }
+        return removed;
     }
 
-}
+    /**
+     * Marks a task of this section as completed. Completed tasks still count towards the task
+     * counts, but no longer towards the earliest due date or the overdue count.
+     * @return true if the task is in this section and was still open.
+     */
+    public synchronized boolean completeTask(Task task, Date completedDate)
+    {
+        if (task.isCompleted() || !tasks.contains(task)) {
+            return false;
+        }
+        task.setCompletedDate(completedDate);
+        removeOpenDueDate(task.getDueDate().getTime());
+        return true;
+    }
+
+    private void addOpenDueDate(long due)
+    {
+        dueDateCounts.merge(due, 1, Integer::sum);
+        if (due < overdueCutoff) {
+            overdueCount++;
+        }
+    }
+
+    private void removeOpenDueDate(long due)
+    {
+        dueDateCounts.computeIfPresent(due, (key, count) -> count == 1 ? null : count - 1);
+        if (due < overdueCutoff) {
+            overdueCount--;
+        }
+    }
+
+    // --- Aggregates (O(1) reads) ---
+
+    public synchronized int getTaskCount()
+    {
+        return tasks.size();
+    }
 
+    public synchronized int getTaskCount(Priority priority)
+    {
+        return countByPriority[priority.ordinal()];
+    }
+
+    /**
+     * @return The earliest due date of any open task in this section, or null if it has none.
+     */
+    public synchronized Date getEarliestDueDate()
+    {
+        return dueDateCounts.isEmpty() ? null : new Date(dueDateCounts.firstKey());
+    }
+
+    /**
+     * @return The number of open tasks due before today.
+     */
+    public synchronized int getOverdueCount()
+    {
+        long now = System.currentTimeMillis();
+        if (now >= nextCutoffMillis) {
+            // A new day started: recount once against the new cutoff (walks distinct past due dates, not tasks)
+            updateOverdueCutoff(now);
+            overdueCount = 0;
+            for (Map.Entry<Long, Integer> entry : dueDateCounts.headMap(overdueCutoff).entrySet()) {
+                overdueCount += entry.getValue();
+            }
+        }
+        return overdueCount;
+    }
+
+    /**
+     * @return A consistent snapshot of all aggregates.
+     */
+    public synchronized SectionSummary getSummary()
+    {
+        int[] counts = countByPriority.clone();
+        return new SectionSummary(name, tasks.size(), counts, getEarliestDueDate(), getOverdueCount());
+    }
+
+    private void updateOverdueCutoff(long nowMillis)
+    {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = new Date(nowMillis).toInstant().atZone(zone).toLocalDate();
+        overdueCutoff = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        nextCutoffMillis = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+}
@@ -0,0 +1,37 @@
+package model;
+
+import java.util.Date;
+
+/**
+ * An immutable snapshot of a section's aggregates (see {@link Section#getSummary()}).
+ */
+public class SectionSummary
+{
+    private final String name;
+    private final int taskCount;
+    private final int[] countByPriority;
+    private final Date earliestDueDate;
+    private final int overdueCount;
+
+    SectionSummary(String name, int taskCount, int[] countByPriority, Date earliestDueDate, int overdueCount)
+    {
+        this.name = name;
+        this.taskCount = taskCount;
+        this.countByPriority = countByPriority;
+        this.earliestDueDate = earliestDueDate;
+        this.overdueCount = overdueCount;
+    }
+
+    public String getName() {return name;}
+    public int getTaskCount() {return taskCount;}
+    public int getTaskCount(Priority priority) {return countByPriority[priority.ordinal()];}
+    public int getOverdueCount() {return overdueCount;}
+
+    /**
+     * @return The earliest due date of an open task in the section, or null if there is none.
+     */
+    public Date getEarliestDueDate()
+    {
+        return earliestDueDate == null ? null : new Date(earliestDueDate.getTime());
+    }
+}
@@ -9,6 +9,7 @@ public class Task
     private Priority priority;
     private Date dueDate;
     private int id;
+    private Date completedDate; // null while the task is still open
 
     //constructor
     public Task (String name, Priority priority, Date dueDate)
@@ -31,6 +32,10 @@ public class Task
     {
         this.dueDate=dueDate;
     }
+    public void setCompletedDate(Date completedDate)
+    {
+        this.completedDate = completedDate;
+    }
 
     public String getName()
     {
@@ -44,13 +49,21 @@ public class Task
     {
         return dueDate;
     }
+    public Date getCompletedDate()
+    {
+        return completedDate;
+    }
+    public boolean isCompleted()
+    {
+        return completedDate != null;
+    }
 
     //For reformatting
     @Override // This annotation is now correct because the method name matches the superclass method
     public String toString() // Corrected: 'public' (lowercase) and 'toString' (lowercase 't')
     {
         SimpleDateFormat sdf = new SimpleDateFormat("MMM dd"); // Consider adding year: "MMM dd, yyyy"
-        return name + "( Priority: " + priority + " Due: " + sdf.format(dueDate) + " )";
+        return (isCompleted() ? "[Done] " : "") + name + "( Priority: " + priority + " Due: " + sdf.format(dueDate) + " )";
     }
 }
 
@@ -0,0 +1,90 @@
+package model;
+
+/**
+ * A change to TaskManager's in-memory model, published through {@link TaskChangePublisher}.
+ *
+ * Task events carry the affected Task object itself (the same instance TaskManager holds), so
+ * subscribers can find it in their own lists by identity. SECTION_CHANGED and RESET carry no
+ * details: they tell the subscriber to re-read one section, or everything, from TaskManager.
+ * They are sent when a section's tasks were replaced wholesale (e.g. loaded in the background)
+ * and when a slow subscriber's buffer overflowed and its pending events were coalesced.
+ */
+public final class TaskChangeEvent {
+
+    public enum Type {
+        SECTION_ADDED,
+        SECTION_REMOVED,
+        /** Re-read the section: its tasks, and whether it still exists. */
+        SECTION_CHANGED,
+        TASK_ADDED,
+        TASK_REMOVED,
+        /** The task's state changed in place, e.g. it was completed. */
+        TASK_UPDATED,
+        /** Re-read all sections and tasks. */
+        RESET
+    }
+
+    private static final TaskChangeEvent RESET_EVENT = new TaskChangeEvent(Type.RESET, null, null);
+
+    private final Type type;
+    private final String sectionName;
+    private final Task task;
+
+    private TaskChangeEvent(Type type, String sectionName, Task task) {
+        this.type = type;
+        this.sectionName = sectionName;
+        this.task = task;
+    }
+
+    static TaskChangeEvent sectionAdded(String sectionName) {
+        return new TaskChangeEvent(Type.SECTION_ADDED, sectionName, null);
+    }
+
+    static TaskChangeEvent sectionRemoved(String sectionName) {
+        return new TaskChangeEvent(Type.SECTION_REMOVED, sectionName, null);
+    }
+
+    static TaskChangeEvent sectionChanged(String sectionName) {
+        return new TaskChangeEvent(Type.SECTION_CHANGED, sectionName, null);
+    }
+
+    static TaskChangeEvent taskAdded(String sectionName, Task task) {
+        return new TaskChangeEvent(Type.TASK_ADDED, sectionName, task);
+    }
+
+    static TaskChangeEvent taskRemoved(String sectionName, Task task) {
+        return new TaskChangeEvent(Type.TASK_REMOVED, sectionName, task);
+    }
+
+    static TaskChangeEvent taskUpdated(String sectionName, Task task) {
+        return new TaskChangeEvent(Type.TASK_UPDATED, sectionName, task);
+    }
+
+    static TaskChangeEvent reset() {
+        return RESET_EVENT;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The affected section, or null for RESET.
+     */
+    public String getSectionName() {
+        return sectionName;
+    }
+
+    /**
+     * @return The affected task, or null for section events and RESET.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return type + (sectionName == null ? "" : " section='" + sectionName + "'")
+                + (task == null ? "" : " task='" + task.getName() + "'");
+    }
+}
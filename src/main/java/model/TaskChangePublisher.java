@@ -0,0 +1,284 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The TaskChangePublisher class is a {@link Flow.Publisher} of TaskManager's change events.
+ *
+ * Publishing never blocks: TaskManager publishes while holding its write lock, so a slow
+ * subscriber must not be able to stall writers. Instead, each subscriber gets its own bounded
+ * buffer (default 256 events, set with {@code taskmanager.events.bufferSize}), and pending events
+ * are coalesced as new ones arrive:
+ * <ul>
+ *   <li>an update to a task that already has a pending add or update is dropped, since the
+ *       subscriber will read the task's current state anyway;</li>
+ *   <li>a removal cancels a pending add of the same task, and replaces its pending updates;</li>
+ *   <li>a pending SECTION_CHANGED absorbs later events of its section, and a pending RESET
+ *       absorbs everything, since both make the subscriber re-read the current state;</li>
+ *   <li>when the buffer is full, its events are collapsed into one SECTION_CHANGED per affected
+ *       section, or into a single RESET if even that would not fit.</li>
+ * </ul>
+ * Events are delivered in order, one at a time, on the executor given at subscription, and only
+ * as far as the subscriber has requested them.
+ */
+public class TaskChangePublisher implements Flow.Publisher<TaskChangeEvent> {
+
+    private static final int BUFFER_SIZE = Math.max(2, Integer.getInteger("taskmanager.events.bufferSize", 256));
+
+    private final CopyOnWriteArrayList<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+
+    /**
+     * Subscribes with delivery on the common fork/join pool.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super TaskChangeEvent> subscriber) {
+        subscribe(subscriber, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Subscribes with delivery on the given executor, e.g. {@code Platform::runLater} for a
+     * subscriber that updates JavaFX controls. The executor is never called concurrently for the
+     * same subscriber, so a FIFO executor sees events in publication order.
+     */
+    public void subscribe(Flow.Subscriber<? super TaskChangeEvent> subscriber, Executor executor) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        ChangeSubscription subscription = new ChangeSubscription(subscriber, executor);
+        if (!closed) {
+            subscriptions.add(subscription);
+        }
+        subscription.start(closed);
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Hands an event to every subscriber's buffer. Never blocks on subscribers.
+     */
+    void publish(TaskChangeEvent event) {
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Completes every subscription once its pending events have been delivered.
+     */
+    public void close() {
+        closed = true;
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    private final class ChangeSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super TaskChangeEvent> subscriber;
+        private final Executor executor;
+
+        // All guarded by this
+        private final ArrayDeque<TaskChangeEvent> buffer = new ArrayDeque<>();
+        private long demand = 0;
+        private boolean drainScheduled = true; // Until onSubscribe has run, see start()
+        private boolean cancelled = false;
+        private boolean completing = false;
+        private Throwable pendingError = null;
+
+        ChangeSubscription(Flow.Subscriber<? super TaskChangeEvent> subscriber, Executor executor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        // onSubscribe runs as the first drain task, so it always happens before any onNext
+        void start(boolean alreadyClosed) {
+            if (alreadyClosed) {
+                completing = true;
+            }
+            executor.execute(() -> {
+                try {
+                    subscriber.onSubscribe(this);
+                } catch (Throwable e) {
+                    cancel();
+                    System.err.println("TaskChangePublisher: onSubscribe failed: " + e);
+                }
+                drain();
+            });
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    pendingError = new IllegalArgumentException("Non-positive request: " + n); // Flow rule 3.9
+                } else {
+                    demand = (demand + n < 0) ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                buffer.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        void complete() {
+            synchronized (this) {
+                completing = true;
+            }
+            scheduleDrain();
+        }
+
+        void offer(TaskChangeEvent event) {
+            synchronized (this) {
+                if (cancelled || completing) {
+                    return;
+                }
+                coalesce(event);
+            }
+            scheduleDrain();
+        }
+
+        // Caller holds the lock
+        private void coalesce(TaskChangeEvent event) {
+            if (event.getType() == TaskChangeEvent.Type.RESET) {
+                buffer.clear();
+                buffer.addLast(event);
+                return;
+            }
+            for (TaskChangeEvent pending : buffer) {
+                if (pending.getType() == TaskChangeEvent.Type.RESET
+                        || (pending.getType() == TaskChangeEvent.Type.SECTION_CHANGED
+                            && pending.getSectionName().equals(event.getSectionName()))) {
+                    return; // The pending re-read will pick this change up
+                }
+            }
+
+            switch (event.getType()) {
+                case SECTION_CHANGED:
+                    buffer.removeIf(pending -> event.getSectionName().equals(pending.getSectionName()));
+                    break;
+                case TASK_UPDATED:
+                    for (TaskChangeEvent pending : buffer) {
+                        if (pending.getTask() == event.getTask()) {
+                            return; // Pending add/update of the same task; it will be read in its current state
+                        }
+                    }
+                    break;
+                case TASK_REMOVED:
+                    boolean addWasPending = false;
+                    for (Iterator<TaskChangeEvent> it = buffer.iterator(); it.hasNext(); ) {
+                        TaskChangeEvent pending = it.next();
+                        if (pending.getTask() == event.getTask()) {
+                            addWasPending |= pending.getType() == TaskChangeEvent.Type.TASK_ADDED;
+                            it.remove();
+                        }
+                    }
+                    if (addWasPending) {
+                        return; // The subscriber never saw the task, so it need not hear of its removal
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (buffer.size() >= BUFFER_SIZE) {
+                collapse(event);
+            } else {
+                buffer.addLast(event);
+            }
+        }
+
+        // Replaces a full buffer with one re-read per affected section, or a single RESET
+        private void collapse(TaskChangeEvent event) {
+            Set<String> sectionNames = new LinkedHashSet<>();
+            for (TaskChangeEvent pending : buffer) {
+                sectionNames.add(pending.getSectionName());
+            }
+            sectionNames.add(event.getSectionName());
+            int coalesced = buffer.size() + 1;
+            buffer.clear();
+            if (sectionNames.size() > BUFFER_SIZE / 2) {
+                buffer.addLast(TaskChangeEvent.reset());
+            } else {
+                for (String sectionName : sectionNames) {
+                    buffer.addLast(TaskChangeEvent.sectionChanged(sectionName));
+                }
+            }
+            System.out.println("TaskChangePublisher: Subscriber buffer full; coalesced " + coalesced
+                    + " events into " + buffer.size() + ".");
+        }
+
+        private void scheduleDrain() {
+            synchronized (this) {
+                if (drainScheduled || cancelled || !hasWork()) {
+                    return;
+                }
+                drainScheduled = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        // Caller holds the lock
+        private boolean hasWork() {
+            return pendingError != null || (demand > 0 && !buffer.isEmpty()) || (completing && buffer.isEmpty());
+        }
+
+        // Delivers events until demand or buffer runs out; only one drain runs at a time per subscription
+        private void drain() {
+            while (true) {
+                TaskChangeEvent event = null;
+                Throwable error;
+                synchronized (this) {
+                    if (cancelled || !hasWork()) {
+                        drainScheduled = false;
+                        return;
+                    }
+                    error = pendingError;
+                    if (error == null && !buffer.isEmpty()) {
+                        event = buffer.pollFirst(); // hasWork() guarantees demand here
+                        if (demand != Long.MAX_VALUE) {
+                            demand--;
+                        }
+                    } else {
+                        cancelled = true; // Terminal: nothing is delivered after onError/onComplete
+                        drainScheduled = false;
+                    }
+                }
+                if (event == null) {
+                    subscriptions.remove(this);
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                try {
+                    subscriber.onNext(event);
+                } catch (Throwable e) {
+                    System.err.println("TaskChangePublisher: Subscriber failed on " + event + "; cancelling it: " + e);
+                    cancel();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,159 +1,904 @@
 package model;
 
 import util.DatabaseManager;
+import util.DatabaseUnavailableException;
+import util.JdbcProfiler;
+import util.OfflineJournal;
+import util.TaskArchive;
+import util.TaskStore;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 
+/**
+ * The TaskManager class owns the in-memory model (sections and their tasks) and keeps it in sync
+ * with a TaskStore. It is safe to use from several threads: reads share a read lock, and mutations
+ * are serialized by a mutation lock. A mutation checks the model and writes to the store holding
+ * only the mutation lock, and takes the write lock just to change memory, so readers (e.g. the UI
+ * thread) never wait for store I/O. Lists returned to callers are snapshots, never live views.
+ */
 public class TaskManager {
+    private static final long HEALTH_PROBE_INTERVAL_SECONDS = 5;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    // Completed tasks stay visible for this many days before they are archived
+    private static final int ARCHIVE_COMPLETED_AFTER_DAYS = Integer.getInteger("taskmanager.archive.completedDays", 7);
+    // Open tasks are archived once they are this many days past due
+    private static final int ARCHIVE_OVERDUE_AFTER_DAYS = Integer.getInteger("taskmanager.archive.overdueDays", 90);
+
     private Map<String, Section> sectionsMap;
-    private DatabaseManager dbManager;
+    private TaskStore dbManager;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held by every mutation for its whole run, store I/O included. Only holders of this lock change
+    // memory, so they may read it without the read lock; changes additionally take the write lock.
+    private final Object mutationLock = new Object();
+    // Incremented whenever the in-memory model may have changed; lets readers detect staleness (e.g. HTTP ETags)
+    private volatile long version = 0;
+    // Sections whose names are known but whose tasks have not been loaded yet (progressive startup)
+    private Set<String> pendingSections;
+    // Mutations made while the database was unavailable, replayed in order by the health probe
+    private OfflineJournal journal;
+    private ScheduledExecutorService healthProbe;
+    // Set when the synchronous startup load found the database down; the health probe then loads
+    // everything once it is back, instead of serving the journal-only model for good
+    private volatile boolean needsFullLoad = false;
+    // Typo-tolerant index over the names of every task in sectionsMap, kept in sync on add/remove
+    private TaskNameIndex nameIndex;
+    // Cold storage for completed and long past due tasks, which are removed from memory and the store
+    private TaskArchive archive;
+    // Fine-grained change events for the UI and other observers; published while holding the write lock,
+    // so events are in the order the changes were made
+    private TaskChangePublisher changePublisher;
 
     public TaskManager() {
+        this(true);
+    }
+
+    /**
+     * @param loadOnStartup true to load every section and task synchronously before returning,
+     *                      false to start empty and let the caller stream data in through
+     *                      {@link #fetchSectionsFromDatabase()} and {@link #completeSectionLoad(String, List)}.
+     */
+    public TaskManager(boolean loadOnStartup) {
+        this(new DatabaseManager(), new OfflineJournal(), new TaskArchive(), loadOnStartup);
+    }
+
+    /**
+     * Creates a TaskManager with an in-memory archive.
+     * @see #TaskManager(TaskStore, OfflineJournal, TaskArchive, boolean)
+     */
+    public TaskManager(TaskStore store, OfflineJournal journal, boolean loadOnStartup) {
+        this(store, journal, new TaskArchive(null), loadOnStartup);
+    }
+
+    /**
+     * @param store The persistence layer, e.g. {@link DatabaseManager} or an in-memory store for headless runs.
+     * @param journal Where mutations go while the store is unavailable.
+     * @param archive Where {@link #archiveTasks()} moves completed and long past due tasks.
+     * @param loadOnStartup See {@link #TaskManager(boolean)}.
+     */
+    public TaskManager(TaskStore store, OfflineJournal journal, TaskArchive archive, boolean loadOnStartup) {
         System.out.println("TaskManager: Constructor called.");
         this.sectionsMap = new LinkedHashMap<>();
-        this.dbManager = new DatabaseManager();
+        this.pendingSections = new LinkedHashSet<>();
+        this.nameIndex = new TaskNameIndex();
+        this.dbManager = store;
+        this.journal = journal;
+        this.archive = archive;
+        this.changePublisher = new TaskChangePublisher();
 
-        loadAllDataFromDatabase();
-        System.out.println("TaskManager: Data loading initiated on startup.");
+        if (loadOnStartup) {
+            replayOfflineJournal();
+            needsFullLoad = !loadAllDataFromDatabase(true);
+            System.out.println("TaskManager: Data loading initiated on startup.");
+        } else {
+            // Show changes journaled during a previous outage straight away; the progressive load
+            // merges the stored rows into these sections later (see completeSectionLoad)
+            applyJournalToMemory();
+        }
+        startHealthProbe();
     }
 
-    private void loadAllDataFromDatabase() {
-        System.out.println("TaskManager: Loading all data from database...");
-        sectionsMap.clear();
-        Map<String, Section> loadedSections = dbManager.loadAllSections();
-        System.out.println("TaskManager: DatabaseManager returned " + loadedSections.size() + " sections.");
+    // --- Offline mode ---
 
-        for (Map.Entry<String, Section> entry : loadedSections.entrySet()) {
-            String sectionName = entry.getKey();
-            Section section = entry.getValue();
-            System.out.println("TaskManager: Loading tasks for section '" + sectionName + "'...");
-            List<Task> tasksForSection = dbManager.loadTasksForSection(sectionName);
-            System.out.println("TaskManager: Found " + tasksForSection.size() + " tasks for section '" + sectionName + "'.");
-            for (Task task : tasksForSection) {
-                section.addTask(task);
+    private void startHealthProbe() {
+        healthProbe = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-health-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthProbe.scheduleWithFixedDelay(() -> {
+            try {
+                if (!dbManager.isAvailable() || !journal.isEmpty()) {
+                    replayOfflineJournal();
+                }
+                if (needsFullLoad && journal.isEmpty() && dbManager.isAvailable()) {
+                    System.out.println("TaskManager: Database is back; loading the data the startup load missed.");
+                    needsFullLoad = !loadAllDataFromDatabase(false);
+                }
+            } catch (RuntimeException e) {
+                // Never let an unexpected error cancel the periodic probe
+                System.err.println("TaskManager: Health probe failed: " + e.getMessage());
             }
-            sectionsMap.put(sectionName, section);
-        }
-        System.out.println("TaskManager: Finished loading all data. Total sections in memory: " + sectionsMap.size());
-        System.out.println("TaskManager: Total tasks in memory (after loading): " + getAllTasks().size());
+        }, HEALTH_PROBE_INTERVAL_SECONDS, HEALTH_PROBE_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
-    public void addSection(String sectionName) {
-        System.out.println("TaskManager: Attempting to add section: " + sectionName);
-        if (!sectionsMap.containsKey(sectionName)) {
-            int sectionId = dbManager.saveSection(sectionName);
-            if (sectionId != -1) {
-                sectionsMap.put(sectionName, new Section(sectionName));
-                System.out.println("TaskManager: Section '" + sectionName + "' added to DB and memory.");
-            } else {
-                System.err.println("TaskManager: Failed to add section '" + sectionName + "' to database or it already exists.");
+    /**
+     * Probes the database and, if it is reachable, replays the offline journal in order.
+     * Blocks on database I/O, so it must not be called from the UI thread.
+     * @return true if the journal is empty afterwards.
+     */
+    public boolean replayOfflineJournal() {
+        if (journal.isEmpty() && dbManager.isAvailable()) {
+            return true;
+        }
+        if (dbManager.probe()) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("replayOfflineJournal")) {
+                journal.replay(dbManager);
             }
-        } else {
-            System.out.println("TaskManager: Section '" + sectionName + "' already exists in memory.");
         }
+        return journal.isEmpty();
     }
 
-    public boolean removeSection(String sectionName) {
-        System.out.println("TaskManager: Attempting to remove section: " + sectionName);
-        boolean dbDeleted = dbManager.deleteSection(sectionName);
-        if (dbDeleted) {
-            sectionsMap.remove(sectionName);
-            System.out.println("TaskManager: Section '" + sectionName + "' successfully removed from DB and memory.");
+    /**
+     * @return true if the database is currently considered unreachable or there are journaled
+     *         mutations still waiting to be written.
+     */
+    public boolean isOffline() {
+        return !dbManager.isAvailable() || !journal.isEmpty();
+    }
+
+    public int getPendingOfflineChanges() {
+        return journal.size();
+    }
+
+    /**
+     * Writes a mutation to the database, or journals it when the database is unavailable.
+     * While the journal is non-empty every mutation is journaled, so the database always
+     * sees mutations in the order they were made.
+     * @return true if the mutation was written or journaled, false if the database rejected it.
+     */
+    private boolean persist(OfflineJournal.Entry entry, BooleanSupplier databaseWrite) {
+        return persist(Collections.singletonList(entry), databaseWrite);
+    }
+
+    /**
+     * Like {@link #persist(OfflineJournal.Entry, BooleanSupplier)} for a database write that covers
+     * several mutations at once; when it has to be journaled, every entry is journaled in order.
+     */
+    private boolean persist(List<OfflineJournal.Entry> entries, BooleanSupplier databaseWrite) {
+        if (isOffline()) {
+            entries.forEach(journal::append);
+            return true;
+        }
+        try {
+            return databaseWrite.getAsBoolean();
+        } catch (DatabaseUnavailableException e) {
+            System.err.println("TaskManager: Database unavailable (" + e.getMessage() + "); journaling "
+                    + (entries.size() == 1 ? entries.get(0).toString() : entries.size() + " entries") + ".");
+            entries.forEach(journal::append);
             return true;
-        } else {
-            System.err.println("TaskManager: Failed to remove section '" + sectionName + "' from database or it did not exist.");
-            return false;
         }
     }
 
-    public void addTask(String sectionName, Task task) {
-        System.out.println("TaskManager: Attempting to add task '" + task.getName() + "' to section '" + sectionName + "'.");
-        if (!sectionsMap.containsKey(sectionName)) {
-            addSection(sectionName);
+    /**
+     * Applies journaled mutations to the in-memory model. Used when the database could not be
+     * loaded at startup, and before a progressive load, so the local view still reflects changes
+     * made during the outage.
+     */
+    private void applyJournalToMemory() {
+        for (OfflineJournal.Entry entry : journal.getPendingEntries()) {
+            String sectionName = entry.getSectionName();
+            switch (entry.getOperation()) {
+                case ADD_SECTION:
+                    sectionsMap.putIfAbsent(sectionName, new Section(sectionName));
+                    break;
+                case REMOVE_SECTION:
+                    removeSectionFromMemory(sectionName);
+                    break;
+                case ADD_TASK:
+                    Task journaledTask = new Task(entry.getTaskName(), entry.getPriority(), entry.getDueDate());
+                    sectionsMap.computeIfAbsent(sectionName, Section::new).addTask(journaledTask);
+                    nameIndex.add(journaledTask);
+                    break;
+                case REMOVE_TASK:
+                    Section section = sectionsMap.get(sectionName);
+                    if (section != null) {
+                        for (Task task : new ArrayList<>(section.getTasks())) {
+                            if (task.getName().equals(entry.getTaskName())) {
+                                section.removeTask(task);
+                                nameIndex.remove(task);
+                            }
+                        }
+                    }
+                    break;
+                case COMPLETE_TASK:
+                    Section completedIn = sectionsMap.get(sectionName);
+                    if (completedIn != null) {
+                        completeTasksNamed(completedIn, entry.getTaskName(), entry.getCompletedDate());
+                    }
+                    break;
+            }
         }
+    }
 
-        int taskId = dbManager.saveTask(task, sectionName);
-        if (taskId != -1) {
-            Section targetSection = sectionsMap.get(sectionName);
-            if (targetSection != null) {
-                targetSection.addTask(task);
-                System.out.println("TaskManager: Task '" + task.getName() + "' added to section '" + sectionName + "' in DB and memory.");
+    /**
+     * Replaces the in-memory model with everything in the store, plus any journaled changes not
+     * written to it yet.
+     * @param startup true to fall back to the journal-only model if the store is unavailable; false
+     *                to leave the model as it is in that case.
+     * @return true if the store was loaded.
+     */
+    private boolean loadAllDataFromDatabase(boolean startup) {
+        synchronized (mutationLock) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("loadAllData")) {
+                System.out.println("TaskManager: Loading all data from database...");
+                Map<String, Section> loadedSections = null;
+                try {
+                    loadedSections = dbManager.loadAllSections();
+                    System.out.println("TaskManager: DatabaseManager returned " + loadedSections.size() + " sections.");
+
+                    for (Map.Entry<String, Section> entry : loadedSections.entrySet()) {
+                        String sectionName = entry.getKey();
+                        Section section = entry.getValue();
+                        System.out.println("TaskManager: Loading tasks for section '" + sectionName + "'...");
+                        List<Task> tasksForSection = dbManager.loadTasksForSection(sectionName);
+                        System.out.println("TaskManager: Found " + tasksForSection.size() + " tasks for section '" + sectionName + "'.");
+                        for (Task task : tasksForSection) {
+                            section.addTask(task);
+                        }
+                    }
+                } catch (DatabaseUnavailableException e) {
+                    if (!startup) {
+                        System.err.println("TaskManager: Database unavailable during reload (" + e.getMessage() + "); keeping the current model.");
+                        return false;
+                    }
+                    System.err.println("TaskManager: Database unavailable during load (" + e.getMessage() + "); starting in offline mode.");
+                    loadedSections = null;
+                }
+
+                lock.writeLock().lock();
+                try {
+                    sectionsMap.clear();
+                    nameIndex.clear();
+                    if (loadedSections != null) {
+                        for (Section section : loadedSections.values()) {
+                            section.getTasks().forEach(nameIndex::add);
+                            sectionsMap.put(section.getName(), section);
+                        }
+                    }
+                    applyJournalToMemory(); // Changes the store has not seen yet
+                    changePublisher.publish(TaskChangeEvent.reset());
+                } finally {
+                    unlockWrite();
+                }
+                System.out.println("TaskManager: Finished loading all data. Total sections in memory: " + sectionsMap.size());
+                System.out.println("TaskManager: Total tasks in memory (after loading): " + getAllTasks().size());
+                return loadedSections != null;
             }
-        } else {
-            System.err.println("TaskManager: Failed to add task '" + task.getName() + "' to database.");
         }
     }
 
-    public boolean removeTask(String sectionName, Task task) {
-        System.out.println("TaskManager: Attempting to remove task '" + task.getName() + "' from section '" + sectionName + "'.");
-        boolean dbDeleted = dbManager.deleteTask(task.getName(), sectionName);
-        if (dbDeleted) {
-            Section section = sectionsMap.get(sectionName);
-            if (section != null) {
-                boolean inMemoryRemoved = section.removeTask(task);
-                if (inMemoryRemoved) {
-                    System.out.println("TaskManager: Task '" + task.getName() + "' removed from section '" + sectionName + "' from DB and memory.");
+    // --- Progressive loading ---
+    // The fetch methods only talk to the database and never touch in-memory state; they block on I/O,
+    // so they belong on a background thread. The register/complete methods only change memory and,
+    // like every other method, may be called from any thread.
+
+    /**
+     * Fetches the section skeletons (names only, no tasks) from the database.
+     * Safe to call from a background thread.
+     * @throws DatabaseUnavailableException if the database cannot be reached.
+     */
+    public Map<String, Section> fetchSectionsFromDatabase() {
+        try (JdbcProfiler.Action action = JdbcProfiler.action("fetchSections")) {
+            return dbManager.loadAllSections();
+        }
+    }
+
+    /**
+     * Fetches the tasks of one section from the database without adding them to memory.
+     * Safe to call from a background thread.
+     * @throws DatabaseUnavailableException if the database cannot be reached.
+     */
+    public List<Task> fetchTasksFromDatabase(String sectionName) {
+        try (JdbcProfiler.Action action = JdbcProfiler.action("fetchTasks")) {
+            return dbManager.loadTasksForSection(sectionName);
+        }
+    }
+
+    /**
+     * Registers sections whose tasks are still being loaded. They show up in {@link #getSectionNames()}
+     * straight away and are reported by {@link #isSectionLoading(String)} until their tasks arrive.
+     * Sections that already exist in memory (created offline, or from the journal) are registered too,
+     * so their stored tasks are still loaded and merged in.
+     */
+    public void registerPendingSections(Iterable<String> sectionNames) {
+        synchronized (mutationLock) {
+            lock.writeLock().lock();
+            try {
+                for (String sectionName : sectionNames) {
+                    if (!sectionsMap.containsKey(sectionName)) {
+                        sectionsMap.put(sectionName, new Section(sectionName));
+                        pendingSections.add(sectionName);
+                        changePublisher.publish(TaskChangeEvent.sectionAdded(sectionName));
+                    } else if (pendingSections.add(sectionName)) {
+                        changePublisher.publish(TaskChangeEvent.sectionChanged(sectionName));
+                    }
+                }
+                System.out.println("TaskManager: " + pendingSections.size() + " sections pending task load.");
+            } finally {
+                unlockWrite();
+            }
+        }
+    }
+
+    /**
+     * Attaches the tasks loaded in the background to a pending section. If the section already had
+     * tasks in memory (added offline, or applied from the journal), they are kept, and loaded rows
+     * matching one of them (same name, priority and due date) are skipped: they are that task,
+     * written to the store when the journal was replayed.
+     * @return true if the tasks were attached, false if the section is no longer pending
+     *         (e.g. it was removed while its tasks were loading).
+     */
+    public boolean completeSectionLoad(String sectionName, List<Task> tasks) {
+        synchronized (mutationLock) {
+            lock.writeLock().lock();
+            try {
+                if (!pendingSections.remove(sectionName)) {
+                    System.out.println("TaskManager: Ignoring loaded tasks for section '" + sectionName + "' (no longer pending).");
+                    return false;
+                }
+                Section section = sectionsMap.get(sectionName);
+                Map<String, Integer> inMemory = new HashMap<>();
+                for (Task task : section.getTasks()) {
+                    inMemory.merge(mergeKey(task), 1, Integer::sum);
+                }
+                int added = 0;
+                for (Task task : tasks) {
+                    String key = mergeKey(task);
+                    if (inMemory.getOrDefault(key, 0) > 0) {
+                        inMemory.merge(key, -1, Integer::sum);
+                        continue;
+                    }
+                    section.addTask(task);
+                    nameIndex.add(task);
+                    added++;
+                }
+                // One re-read instead of an event per loaded task
+                changePublisher.publish(TaskChangeEvent.sectionChanged(sectionName));
+                System.out.println("TaskManager: Section '" + sectionName + "' finished loading with " + added + " stored tasks"
+                        + (added == tasks.size() ? "." : " (" + (tasks.size() - added) + " already in memory)."));
+                return true;
+            } finally {
+                unlockWrite();
+            }
+        }
+    }
+
+    private static String mergeKey(Task task) {
+        return task.getName() + '\u0000' + task.getPriority() + '\u0000' + task.getDueDate().getTime();
+    }
+
+    public boolean isSectionLoading(String sectionName) {
+        lock.readLock().lock();
+        try {
+            return pendingSections.contains(sectionName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isFullyLoaded() {
+        lock.readLock().lock();
+        try {
+            return pendingSections.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the section exists afterwards, whether added now (saved, or journaled while
+     *         offline) or already present; false if it could not be saved.
+     */
+    public boolean addSection(String sectionName) {
+        synchronized (mutationLock) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("addSection")) {
+                System.out.println("TaskManager: Attempting to add section: " + sectionName);
+                if (!sectionsMap.containsKey(sectionName)) {
+                    boolean saved = persist(OfflineJournal.Entry.addSection(sectionName),
+                            () -> dbManager.saveSection(sectionName) != -1);
+                    if (saved) {
+                        lock.writeLock().lock();
+                        try {
+                            sectionsMap.put(sectionName, new Section(sectionName));
+                            changePublisher.publish(TaskChangeEvent.sectionAdded(sectionName));
+                        } finally {
+                            unlockWrite();
+                        }
+                        System.out.println("TaskManager: Section '" + sectionName + "' added to DB and memory.");
+                        return true;
+                    } else {
+                        System.err.println("TaskManager: Failed to add section '" + sectionName + "' to database.");
+                        return false;
+                    }
+                } else {
+                    System.out.println("TaskManager: Section '" + sectionName + "' already exists in memory.");
+                    return true;
+                }
+            }
+        }
+    }
+
+    public boolean removeSection(String sectionName) {
+        synchronized (mutationLock) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("removeSection")) {
+                System.out.println("TaskManager: Attempting to remove section: " + sectionName);
+                boolean dbDeleted = persist(OfflineJournal.Entry.removeSection(sectionName),
+                        () -> dbManager.deleteSection(sectionName));
+                if (dbDeleted) {
+                    lock.writeLock().lock();
+                    try {
+                        removeSectionFromMemory(sectionName);
+                        changePublisher.publish(TaskChangeEvent.sectionRemoved(sectionName));
+                    } finally {
+                        unlockWrite();
+                    }
+                    System.out.println("TaskManager: Section '" + sectionName + "' successfully removed from DB and memory.");
                     return true;
                 } else {
-                    System.err.println("TaskManager: Task '" + task.getName() + "' not found in in-memory section '" + sectionName + "'.");
+                    System.err.println("TaskManager: Failed to remove section '" + sectionName + "' from database or it did not exist.");
                     return false;
                 }
-            } else {
-                System.err.println("TaskManager: Section '" + sectionName + "' not found in memory for task removal.");
+            }
+        }
+    }
+
+    /**
+     * @return true if the task was saved (or journaled while offline) and added to memory; false if
+     *         its section is still loading, or the section or task could not be saved.
+     */
+    public boolean addTask(String sectionName, Task task) {
+        synchronized (mutationLock) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("addTask")) {
+                System.out.println("TaskManager: Attempting to add task '" + task.getName() + "' to section '" + sectionName + "'.");
+                if (!sectionsMap.containsKey(sectionName) && !addSection(sectionName)) {
+                    System.err.println("TaskManager: Section '" + sectionName + "' could not be created; task '" + task.getName() + "' not added.");
+                    return false;
+                }
+                if (pendingSections.contains(sectionName)) {
+                    // The task would be saved now and then loaded a second time with the rest of the section.
+                    System.err.println("TaskManager: Section '" + sectionName + "' is still loading; task '" + task.getName() + "' not added.");
+                    return false;
+                }
+                Section targetSection = sectionsMap.get(sectionName);
+
+                boolean saved = persist(OfflineJournal.Entry.addTask(sectionName, task),
+                        () -> dbManager.saveTask(task, sectionName) != -1);
+                if (saved) {
+                    lock.writeLock().lock();
+                    try {
+                        targetSection.addTask(task);
+                        nameIndex.add(task);
+                        changePublisher.publish(TaskChangeEvent.taskAdded(sectionName, task));
+                    } finally {
+                        unlockWrite();
+                    }
+                    System.out.println("TaskManager: Task '" + task.getName() + "' added to section '" + sectionName + "' in DB and memory.");
+                    return true;
+                } else {
+                    System.err.println("TaskManager: Failed to add task '" + task.getName() + "' to database.");
+                    return false;
+                }
+            }
+        }
+    }
+
+    public boolean removeTask(String sectionName, Task task) {
+        synchronized (mutationLock) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("removeTask")) {
+                System.out.println("TaskManager: Attempting to remove task '" + task.getName() + "' from section '" + sectionName + "'.");
+                boolean dbDeleted = persist(OfflineJournal.Entry.removeTask(sectionName, task.getName()),
+                        () -> dbManager.deleteTask(task.getName(), sectionName));
+                if (dbDeleted) {
+                    Section section = sectionsMap.get(sectionName);
+                    if (section != null) {
+                        boolean inMemoryRemoved;
+                        lock.writeLock().lock();
+                        try {
+                            inMemoryRemoved = section.removeTask(task);
+                            if (inMemoryRemoved) {
+                                nameIndex.remove(task);
+                                changePublisher.publish(TaskChangeEvent.taskRemoved(sectionName, task));
+                            }
+                        } finally {
+                            unlockWrite();
+                        }
+                        if (inMemoryRemoved) {
+                            System.out.println("TaskManager: Task '" + task.getName() + "' removed from section '" + sectionName + "' from DB and memory.");
+                            return true;
+                        } else {
+                            System.err.println("TaskManager: Task '" + task.getName() + "' not found in in-memory section '" + sectionName + "'.");
+                            return false;
+                        }
+                    } else {
+                        System.err.println("TaskManager: Section '" + sectionName + "' not found in memory for task removal.");
+                        return false;
+                    }
+                } else {
+                    System.err.println("TaskManager: Failed to remove task '" + task.getName() + "' from database.");
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks a task as completed, together with any other open task of the same name in the section
+     * (the store identifies tasks by name).
+     * @return true if the task was completed, false if it was already completed or could not be saved.
+     */
+    public boolean completeTask(String sectionName, Task task) {
+        synchronized (mutationLock) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("completeTask")) {
+                System.out.println("TaskManager: Attempting to complete task '" + task.getName() + "' in section '" + sectionName + "'.");
+                if (task.isCompleted()) {
+                    System.out.println("TaskManager: Task '" + task.getName() + "' is already completed.");
+                    return false;
+                }
+                Date completedDate = new Date();
+                boolean saved = persist(OfflineJournal.Entry.completeTask(sectionName, task.getName(), completedDate),
+                        () -> dbManager.completeTask(task.getName(), sectionName, completedDate));
+                Section section = sectionsMap.get(sectionName);
+                if (saved && section != null) {
+                    int completed;
+                    lock.writeLock().lock();
+                    try {
+                        completed = completeTasksNamed(section, task.getName(), completedDate);
+                    } finally {
+                        unlockWrite();
+                    }
+                    System.out.println("TaskManager: Completed " + completed + " task(s) named '" + task.getName() + "' in section '" + sectionName + "'.");
+                    return completed > 0;
+                }
+                System.err.println("TaskManager: Failed to complete task '" + task.getName() + "' in database or memory.");
                 return false;
             }
-        } else {
-            System.err.println("TaskManager: Failed to remove task '" + task.getName() + "' from database.");
-            return false;
+        }
+    }
+
+    private int completeTasksNamed(Section section, String taskName, Date completedDate) {
+        int completed = 0;
+        for (Task task : section.getTasks()) {
+            if (task.getName().equals(taskName) && section.completeTask(task, completedDate)) {
+                changePublisher.publish(TaskChangeEvent.taskUpdated(section.getName(), task));
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    // --- Archiving ---
+
+    /**
+     * Moves tasks out of the working set into the archive: completed tasks once they were completed
+     * more than {@code taskmanager.archive.completedDays} days ago (default 7), and open tasks once
+     * they are more than {@code taskmanager.archive.overdueDays} days past due (default 90).
+     * Tasks are written to the archive first and only then deleted from the store and from memory;
+     * if the store rejects the delete, the new archive segment is discarded and the tasks stay in
+     * the working set. A crash between the two steps leaves the tasks in both, so they are archived
+     * again on the next run.
+     *
+     * Runs as one mutation: other writers wait for the archive and store I/O, readers do not.
+     * The store deletes tasks by name, so tasks are only archived if every task with the same name
+     * in the section is archivable too. Sections that are still loading are skipped.
+     * Blocks on file and database I/O, so it must not be called from the UI thread.
+     * @return The number of tasks archived.
+     */
+    public int archiveTasks() {
+        synchronized (mutationLock) {
+            try (JdbcProfiler.Action action = JdbcProfiler.action("archiveTasks")) {
+                long now = System.currentTimeMillis();
+                long completedCutoff = now - ARCHIVE_COMPLETED_AFTER_DAYS * DAY_MILLIS;
+                long dueCutoff = now - ARCHIVE_OVERDUE_AFTER_DAYS * DAY_MILLIS;
+                Date archivedDate = new Date(now);
+
+                // Holding mutationLock, so memory cannot change until the tasks are removed below
+                Map<String, List<Task>> archivableBySection = new LinkedHashMap<>();
+                Map<String, Set<String>> taskNamesBySection = new LinkedHashMap<>();
+                List<OfflineJournal.Entry> removals = new ArrayList<>();
+                List<TaskArchive.ArchivedTask> records = new ArrayList<>();
+                for (Section section : sectionsMap.values()) {
+                    String sectionName = section.getName();
+                    if (pendingSections.contains(sectionName)) {
+                        continue;
+                    }
+                    List<Task> archivable = findArchivableTasks(section, completedCutoff, dueCutoff);
+                    if (archivable.isEmpty()) {
+                        continue;
+                    }
+                    archivableBySection.put(sectionName, archivable);
+                    Set<String> taskNames = new LinkedHashSet<>();
+                    for (Task task : archivable) {
+                        records.add(new TaskArchive.ArchivedTask(sectionName, task, archivedDate));
+                        if (taskNames.add(task.getName())) {
+                            removals.add(OfflineJournal.Entry.removeTask(sectionName, task.getName()));
+                        }
+                    }
+                    taskNamesBySection.put(sectionName, taskNames);
+                }
+                if (records.isEmpty()) {
+                    System.out.println("TaskManager: No tasks to archive.");
+                    return 0;
+                }
+
+                String segmentName = archive.append(records);
+                if (segmentName == null) {
+                    System.err.println("TaskManager: Archive write failed; " + records.size() + " tasks kept in the working set.");
+                    return 0;
+                }
+                // deleteTasks deletes all or nothing; 0 rows only means the store no longer had them
+                boolean deleted = persist(removals, () -> dbManager.deleteTasks(taskNamesBySection) >= 0);
+                if (!deleted) {
+                    if (!archive.discard(segmentName)) {
+                        System.err.println("TaskManager: Archive segment " + segmentName + " could not be discarded; its "
+                                + records.size() + " tasks will be archived again.");
+                    }
+                    System.err.println("TaskManager: Failed to delete archived tasks from the database; "
+                            + records.size() + " tasks kept in the working set.");
+                    return 0;
+                }
+
+                lock.writeLock().lock();
+                try {
+                    for (Map.Entry<String, List<Task>> entry : archivableBySection.entrySet()) {
+                        String sectionName = entry.getKey();
+                        Section section = sectionsMap.get(sectionName);
+                        for (Task task : entry.getValue()) {
+                            section.removeTask(task);
+                            nameIndex.remove(task);
+                            changePublisher.publish(TaskChangeEvent.taskRemoved(sectionName, task));
+                        }
+                    }
+                } finally {
+                    unlockWrite();
+                }
+                System.out.println("TaskManager: Archived " + records.size() + " tasks from " + archivableBySection.size() + " sections.");
+                return records.size();
+            }
+        }
+    }
+
+    private static List<Task> findArchivableTasks(Section section, long completedCutoff, long dueCutoff) {
+        // Group by name first: a name can only go if all of its tasks go
+        Map<String, List<Task>> tasksByName = new LinkedHashMap<>();
+        Set<String> namesToKeep = new LinkedHashSet<>();
+        for (Task task : section.getTasks()) {
+            tasksByName.computeIfAbsent(task.getName(), name -> new ArrayList<>()).add(task);
+            boolean archivable = task.isCompleted()
+                    ? task.getCompletedDate().getTime() < completedCutoff
+                    : task.getDueDate().getTime() < dueCutoff;
+            if (!archivable) {
+                namesToKeep.add(task.getName());
+            }
+        }
+        List<Task> archivable = new ArrayList<>();
+        for (Map.Entry<String, List<Task>> entry : tasksByName.entrySet()) {
+            if (!namesToKeep.contains(entry.getKey())) {
+                archivable.addAll(entry.getValue());
+            }
+        }
+        return archivable;
+    }
+
+    /**
+     * Searches the archive for tasks whose names contain every word of the search term (as a word
+     * or word prefix). Only archive segments whose index contains the words are decompressed.
+     * @return Matching archived tasks, most recently archived first.
+     */
+    public List<TaskArchive.ArchivedTask> searchArchive(String searchTerm, int limit) {
+        System.out.println("TaskManager: searchArchive('" + searchTerm + "', " + limit + ") called.");
+        return archive.search(searchTerm, limit);
+    }
+
+    public int getArchivedTaskCount() {
+        return archive.getArchivedTaskCount();
+    }
+
+    // Every write-locked method releases the lock through here, so no mutation can skip the version bump
+    private void unlockWrite() {
+        version++;
+        lock.writeLock().unlock();
+    }
+
+    /**
+     * @return A counter that changes whenever sections or tasks may have changed. Read it before the
+     *         data it describes: the data can then only be newer than the version, which costs a
+     *         cache miss at worst and never serves stale data as current.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The publisher of change events. Subscribers see every change made after they
+     *         subscribed; see {@link TaskChangePublisher} for how slow subscribers are handled.
+     */
+    public TaskChangePublisher getChangePublisher() {
+        return changePublisher;
+    }
+
+    public boolean hasSection(String sectionName) {
+        lock.readLock().lock();
+        try {
+            return sectionsMap.containsKey(sectionName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeSectionFromMemory(String sectionName) {
+        Section section = sectionsMap.remove(sectionName);
+        pendingSections.remove(sectionName);
+        if (section != null) {
+            for (Task task : section.getTasks()) {
+                nameIndex.remove(task);
+            }
         }
     }
 
     public List<String> getSectionNames() {
-        List<String> names = new ArrayList<>(sectionsMap.keySet());
-        System.out.println("TaskManager: getSectionNames() called. Returning " + names.size() + " section names.");
-        return names;
+        lock.readLock().lock();
+        try {
+            List<String> names = new ArrayList<>(sectionsMap.keySet());
+            System.out.println("TaskManager: getSectionNames() called. Returning " + names.size() + " section names.");
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The section's aggregates (task counts, earliest due date, overdue count), read in O(1),
+     *         or null if there is no such section.
+     */
+    public SectionSummary getSectionSummary(String sectionName) {
+        lock.readLock().lock();
+        try {
+            Section section = sectionsMap.get(sectionName);
+            return (section != null) ? section.getSummary() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The aggregates of every section, in section order.
+     */
+    public List<SectionSummary> getSectionSummaries() {
+        lock.readLock().lock();
+        try {
+            List<SectionSummary> summaries = new ArrayList<>(sectionsMap.size());
+            for (Section section : sectionsMap.values()) {
+                summaries.add(section.getSummary());
+            }
+            return summaries;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public List<Task> getTasksForSection(String sectionName) {
-        Section section = sectionsMap.get(sectionName);
-        List<Task> tasks = (section != null) ? section.getTasks() : Collections.emptyList();
-        System.out.println("TaskManager: getTasksForSection('" + sectionName + "') called. Returning " + tasks.size() + " tasks.");
-        return tasks;
+        lock.readLock().lock();
+        try {
+            Section section = sectionsMap.get(sectionName);
+            List<Task> tasks = (section != null) ? new ArrayList<>(section.getTasks()) : new ArrayList<>();
+            System.out.println("TaskManager: getTasksForSection('" + sectionName + "') called. Returning " + tasks.size() + " tasks.");
+            return tasks;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public List<Task> getAllTasks() {
-        List<Task> allTasks = new ArrayList<>();
-        for (Section section : sectionsMap.values()) {
-            allTasks.addAll(section.getTasks());
+        lock.readLock().lock();
+        try {
+            List<Task> allTasks = new ArrayList<>();
+            for (Section section : sectionsMap.values()) {
+                allTasks.addAll(section.getTasks());
+            }
+            System.out.println("TaskManager: getAllTasks() called. Returning " + allTasks.size() + " total tasks.");
+            return allTasks;
+        } finally {
+            lock.readLock().unlock();
         }
-        System.out.println("TaskManager: getAllTasks() called. Returning " + allTasks.size() + " total tasks.");
-        return allTasks;
     }
 
-    public List<Task> searchTasksByName(String searchTerm) {
-        System.out.println("TaskManager: searchTasksByName('" + searchTerm + "') called.");
-        List<Task> matchingTasks = new ArrayList<>();
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return matchingTasks;
+    /**
+     * Looks up which section holds each of the given tasks, for callers that got the tasks from a
+     * cross-section query such as {@link #searchTasksFuzzy} or {@link #getSortedTasksByDueDateAndPriority}.
+     * Stops scanning once every task is found, so it costs at most one pass over all tasks.
+     * @return Section names keyed by task identity; tasks no longer in any section are left out.
+     */
+    public Map<Task, String> getSectionNamesOf(Collection<Task> tasks) {
+        Set<Task> remaining = Collections.newSetFromMap(new IdentityHashMap<>());
+        remaining.addAll(tasks);
+        Map<Task, String> sectionNames = new IdentityHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Section section : sectionsMap.values()) {
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                for (Task task : section.getTasks()) {
+                    if (remaining.remove(task)) {
+                        sectionNames.put(task, section.getName());
+                    }
+                }
+            }
+            return sectionNames;
+        } finally {
+            lock.readLock().unlock();
         }
+    }
 
-        String lowerCaseSearchTerm = searchTerm.toLowerCase();
+    public List<Task> searchTasksByName(String searchTerm) {
+        lock.readLock().lock();
+        try {
+            System.out.println("TaskManager: searchTasksByName('" + searchTerm + "') called.");
+            List<Task> matchingTasks = new ArrayList<>();
+            if (searchTerm == null || searchTerm.trim().isEmpty()) {
+                return matchingTasks;
+            }
 
-        for (Section section : sectionsMap.values()) {
-            for (Task task : section.getTasks()) {
-                if (task.getName().toLowerCase().contains(lowerCaseSearchTerm)) {
-                    matchingTasks.add(task);
+            String lowerCaseSearchTerm = searchTerm.toLowerCase();
+
+            for (Section section : sectionsMap.values()) {
+                for (Task task : section.getTasks()) {
+                    if (task.getName().toLowerCase().contains(lowerCaseSearchTerm)) {
+                        matchingTasks.add(task);
+                    }
                 }
             }
+            System.out.println("TaskManager: searchTasksByName('" + searchTerm + "') found " + matchingTasks.size() + " tasks.");
+            return matchingTasks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Typo-tolerant search over task names, backed by {@link TaskNameIndex}. Matches whole names or
+     * single words in a name, exactly, by prefix, or within a small edit distance.
+     * @param searchTerm The (possibly misspelled) search text.
+     * @param limit The maximum number of tasks to return.
+     * @return Matching tasks, best match first.
+     */
+    public List<Task> searchTasksFuzzy(String searchTerm, int limit) {
+        lock.readLock().lock();
+        try {
+            System.out.println("TaskManager: searchTasksFuzzy('" + searchTerm + "', " + limit + ") called.");
+            List<Task> matchingTasks = nameIndex.search(searchTerm, limit);
+            System.out.println("TaskManager: searchTasksFuzzy('" + searchTerm + "') found " + matchingTasks.size() + " tasks.");
+            return matchingTasks;
+        } finally {
+            lock.readLock().unlock();
         }
-        System.out.println("TaskManager: searchTasksByName('" + searchTerm + "') found " + matchingTasks.size() + " tasks.");
-        return matchingTasks;
     }
 
     public List<Task> getSortedTasksByDueDateAndPriority() {
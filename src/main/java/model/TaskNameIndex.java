@@ -0,0 +1,387 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * The TaskNameIndex class supports typo-tolerant search over task names.
+ *
+ * Task names are lowercased and deduplicated; the words of all names form a dictionary of terms.
+ * Terms are stored in a BK-tree (for edit-distance lookups) and a sorted set (for prefix lookups),
+ * and each term maps to the names containing it. A query is matched word by word, so the cost of a
+ * search depends on the dictionary size and the number of results asked for, not on how many tasks
+ * share a name.
+ *
+ * The index is maintained incrementally with {@link #add(Task)} and {@link #remove(Task)}.
+ * Terms that disappear are left in the BK-tree as dead nodes and skipped by queries; the tree
+ * is rebuilt once dead nodes outnumber live ones.
+ */
+public class TaskNameIndex {
+
+    private static final int MIN_DEAD_TERMS_BEFORE_REBUILD = 1024;
+    // Prefix lookups on very short queries can match a large part of the dictionary; cap the scan.
+    private static final int MAX_PREFIX_TERMS_PER_RESULT = 8;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Normalized name -> tasks with that name
+    private final Map<String, List<Task>> tasksByName = new HashMap<>();
+    // Dictionary term (a word) -> normalized names containing that word
+    private final Map<String, Set<String>> namesByTerm = new HashMap<>();
+    private final NavigableSet<String> sortedTerms = new TreeSet<>();
+    private BkTree bkTree = new BkTree();
+    private int deadTerms = 0;
+
+    public void add(Task task) {
+        String name = normalize(task.getName());
+        if (name.isEmpty()) {
+            return;
+        }
+        List<Task> tasks = tasksByName.computeIfAbsent(name, key -> new ArrayList<>(1));
+        tasks.add(task);
+        if (tasks.size() > 1) {
+            return; // Name already in the dictionary
+        }
+        for (String term : termsOf(name)) {
+            Set<String> names = namesByTerm.get(term);
+            if (names == null) {
+                names = new HashSet<>(2);
+                namesByTerm.put(term, names);
+                sortedTerms.add(term);
+                if (!bkTree.add(term)) {
+                    deadTerms--; // Revived a dead node
+                }
+            }
+            names.add(name);
+        }
+    }
+
+    public void remove(Task task) {
+        String name = normalize(task.getName());
+        List<Task> tasks = tasksByName.get(name);
+        if (tasks == null) {
+            return;
+        }
+        // Remove by identity: different tasks may share a name
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i) == task) {
+                tasks.remove(i);
+                break;
+            }
+        }
+        if (!tasks.isEmpty()) {
+            return;
+        }
+        tasksByName.remove(name);
+        for (String term : termsOf(name)) {
+            Set<String> names = namesByTerm.get(term);
+            if (names != null && names.remove(name) && names.isEmpty()) {
+                namesByTerm.remove(term);
+                sortedTerms.remove(term);
+                deadTerms++;
+            }
+        }
+        if (deadTerms > MIN_DEAD_TERMS_BEFORE_REBUILD && deadTerms > namesByTerm.size()) {
+            rebuild();
+        }
+    }
+
+    public void clear() {
+        tasksByName.clear();
+        namesByTerm.clear();
+        sortedTerms.clear();
+        bkTree = new BkTree();
+        deadTerms = 0;
+    }
+
+    /**
+     * @return The number of distinct (normalized) task names in the index.
+     */
+    public int getNameCount() {
+        return tasksByName.size();
+    }
+
+    /**
+     * Finds tasks whose name matches every word of the query, where a query word matches a word of
+     * the name exactly, as a prefix, or within a small edit distance. Results are ranked: a name equal
+     * to the whole query first, then by how the most selective query word matched - exact, then prefix
+     * (shortest completion first), then fuzzy by increasing edit distance.
+     * @param query The search text; case and surrounding whitespace are ignored.
+     * @param limit The maximum number of tasks to return.
+     */
+    public List<Task> search(String query, int limit) {
+        List<Task> results = new ArrayList<>();
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return results;
+        }
+
+        Set<String> emittedNames = new HashSet<>();
+        List<Task> exactName = tasksByName.get(normalizedQuery);
+        if (exactName != null && emit(normalizedQuery, exactName, emittedNames, results, limit)) {
+            return results;
+        }
+
+        List<String> queryWords = new ArrayList<>(termsOf(normalizedQuery));
+        if (queryWords.isEmpty()) {
+            return results;
+        }
+
+        // Drive the search with the query word that matches the fewest names; verify the others per name
+        List<TermMatch> driverMatches = null;
+        String driverWord = null;
+        long driverNames = Long.MAX_VALUE;
+        for (String word : queryWords) {
+            List<TermMatch> matches = matchTerms(word, limit);
+            long names = 0;
+            for (TermMatch match : matches) {
+                names += namesByTerm.get(match.term).size();
+            }
+            if (names < driverNames) {
+                driverNames = names;
+                driverMatches = matches;
+                driverWord = word;
+            }
+        }
+        queryWords.remove(driverWord);
+
+        for (TermMatch match : driverMatches) {
+            for (String name : namesByTerm.get(match.term)) {
+                if (emittedNames.contains(name) || !matchesAllWords(name, queryWords)) {
+                    continue;
+                }
+                if (emit(name, tasksByName.get(name), emittedNames, results, limit)) {
+                    return results;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Adds a name's tasks to the results.
+     * @return true once the limit has been reached.
+     */
+    private static boolean emit(String name, List<Task> tasks, Set<String> emittedNames, List<Task> results, int limit) {
+        emittedNames.add(name);
+        for (Task task : tasks) {
+            if (results.size() >= limit) {
+                return true;
+            }
+            results.add(task);
+        }
+        return results.size() >= limit;
+    }
+
+    /**
+     * @return The live dictionary terms matching a query word, best first.
+     */
+    private List<TermMatch> matchTerms(String word, int limit) {
+        Map<String, TermMatch> matches = new HashMap<>();
+
+        int maxPrefixTerms = limit * MAX_PREFIX_TERMS_PER_RESULT;
+        int scanned = 0;
+        for (String term : sortedTerms.tailSet(word, true)) {
+            if (!term.startsWith(word) || scanned++ >= maxPrefixTerms) {
+                break;
+            }
+            int rank = term.length() == word.length() ? TermMatch.EXACT : TermMatch.PREFIX;
+            matches.put(term, new TermMatch(term, rank, term.length() - word.length()));
+        }
+
+        int maxDistance = maxEditDistance(word.length());
+        if (maxDistance > 0) {
+            bkTree.search(word, maxDistance, (term, distance) -> {
+                if (namesByTerm.containsKey(term) && !matches.containsKey(term)) {
+                    matches.put(term, new TermMatch(term, TermMatch.FUZZY, distance));
+                }
+            });
+        }
+
+        List<TermMatch> ranked = new ArrayList<>(matches.values());
+        ranked.sort(Comparator.comparingInt((TermMatch m) -> m.rank)
+                .thenComparingInt(m -> m.cost)
+                .thenComparing(m -> m.term));
+        return ranked;
+    }
+
+    private static boolean matchesAllWords(String name, List<String> queryWords) {
+        if (queryWords.isEmpty()) {
+            return true;
+        }
+        Set<String> nameTerms = termsOf(name);
+        for (String word : queryWords) {
+            boolean matched = false;
+            int maxDistance = maxEditDistance(word.length());
+            for (String term : nameTerms) {
+                if (term.startsWith(word) || (maxDistance > 0 && editDistance(word, term) <= maxDistance)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rebuild() {
+        BkTree rebuilt = new BkTree();
+        for (String term : namesByTerm.keySet()) {
+            rebuilt.add(term);
+        }
+        bkTree = rebuilt;
+        deadTerms = 0;
+        System.out.println("TaskNameIndex: Rebuilt BK-tree with " + namesByTerm.size() + " terms.");
+    }
+
+    // Short words tolerate fewer typos, otherwise almost everything would match
+    private static int maxEditDistance(int wordLength) {
+        if (wordLength <= 2) {
+            return 0;
+        } else if (wordLength <= 5) {
+            return 1;
+        } else if (wordLength <= 10) {
+            return 2;
+        }
+        return 3;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(text.trim().toLowerCase()).replaceAll(" ");
+    }
+
+    // Splits on anything that is not a letter or digit. Hand-rolled: this runs for every indexed task.
+    private static Set<String> termsOf(String normalizedName) {
+        Set<String> terms = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= normalizedName.length(); i++) {
+            boolean wordChar = i < normalizedName.length() && Character.isLetterOrDigit(normalizedName.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(normalizedName.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Levenshtein distance between two strings, using two rolling rows.
+     */
+    static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class TermMatch {
+        static final int EXACT = 0;
+        static final int PREFIX = 1;
+        static final int FUZZY = 2;
+
+        final String term;
+        final int rank;
+        final int cost;
+
+        TermMatch(String term, int rank, int cost) {
+            this.term = term;
+            this.rank = rank;
+            this.cost = cost;
+        }
+    }
+
+    private interface TermVisitor {
+        void visit(String term, int distance);
+    }
+
+    /**
+     * A BK-tree over dictionary terms. Each child edge is labelled with the edit distance between
+     * parent and child, so by the triangle inequality a query within distance k of the target only
+     * needs to follow edges labelled d-k..d+k, where d is the distance to the current node.
+     */
+    private static final class BkTree {
+        private Node root;
+
+        /**
+         * @return true if the term was inserted, false if it was already in the tree.
+         */
+        boolean add(String term) {
+            if (root == null) {
+                root = new Node(term);
+                return true;
+            }
+            Node node = root;
+            while (true) {
+                int distance = editDistance(term, node.term);
+                if (distance == 0) {
+                    return false;
+                }
+                Node child = node.children.get(distance);
+                if (child == null) {
+                    node.children.put(distance, new Node(term));
+                    return true;
+                }
+                node = child;
+            }
+        }
+
+        void search(String query, int maxDistance, TermVisitor visitor) {
+            if (root == null) {
+                return;
+            }
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                int distance = editDistance(query, node.term);
+                if (distance <= maxDistance) {
+                    visitor.visit(node.term, distance);
+                }
+                for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                    if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                        stack.push(child.getValue());
+                    }
+                }
+            }
+        }
+
+        private static final class Node {
+            final String term;
+            final Map<Integer, Node> children = new HashMap<>(4);
+
+            Node(String term) {
+                this.term = term;
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ module org.example.taskmanagerpersonaljfx { // IMPORTANT: Keep your actual modul
 
     requires java.sql;       // For database connectivity
     requires java.desktop;   // For general utility (e.util.Date)
+    requires jdk.httpserver; // For the headless HTTP API server (server.TaskApiServer)
 
     // Open packages to javafx.fxml for UI loading
     opens gui to javafx.fxml;
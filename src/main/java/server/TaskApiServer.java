@@ -0,0 +1,553 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Priority;
+import model.SectionSummary;
+import model.Task;
+import model.TaskManager;
+import util.InMemoryTaskStore;
+import util.JdbcProfiler;
+import util.OfflineJournal;
+import util.TaskArchive;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * The TaskApiServer class runs TaskManager headless and exposes it as a JSON HTTP API, so one
+ * task store can be shared by several people and scripts. It uses the JDK's built-in HTTP server
+ * with one virtual thread per request.
+ *
+ * Endpoints:
+ *   GET    /api/health                           status, offline state and current version
+ *   GET    /api/profile                          JDBC profiler report (plain text; needs -Dtaskmanager.jdbc.profile=true)
+ *   GET    /api/sections                         all sections with task counts, overdue count and earliest due date
+ *   POST   /api/sections                         {"name": "..."}
+ *   DELETE /api/sections/{section}               remove a section and its tasks
+ *   GET    /api/sections/{section}/tasks         tasks of one section (streamed)
+ *   POST   /api/sections/{section}/tasks         {"name": "...", "priority": "HIGH", "dueDate": "2025-01-31"}
+ *   DELETE /api/sections/{section}/tasks/{task}  remove a task by name
+ *   POST   /api/sections/{section}/tasks/{task}/complete  mark a task as completed
+ *   GET    /api/tasks                            all tasks (streamed); ?sort=due for due date/priority
+ *                                                order, ?q=...&limit=N for fuzzy search
+ *   POST   /api/archive                          move completed and long past due tasks to the archive
+ *   GET    /api/archive?q=...&limit=N            search archived tasks
+ *
+ * Every GET carries a weak ETag derived from TaskManager.getVersion(); a request whose
+ * If-None-Match matches gets 304 Not Modified without the body being built. The version counter
+ * restarts with the process, so the ETag also carries a random id drawn at server start. The
+ * ETag of GET /api/sections also carries the current day, since its overdue counts change at
+ * midnight without a version bump.
+ *
+ * With --store=mysql and MySQL down at startup, the server serves the changes in the offline
+ * journal and loads the stored data once MySQL is reachable again.
+ *
+ * Usage: --port=8080 --store=mysql|memory --verbose=false
+ */
+public class TaskApiServer {
+
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int RESPONSE_BUFFER_BYTES = 64 * 1024;
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+
+    private final TaskManager taskManager;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    // Tells this process's versions apart from those of earlier runs, which counted from 0 as well
+    private final String bootId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    public TaskApiServer(TaskManager taskManager, int port) throws IOException {
+        this.taskManager = taskManager;
+        this.httpServer = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(1);
+        executor.close();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                System.err.println("TaskApiServer: Ignoring argument '" + arg + "' (expected --name=value).");
+            }
+        }
+        int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+        String store = options.getOrDefault("store", "mysql");
+
+        // TaskManager logs every call; at thousands of requests per second the synchronized
+        // System.out becomes the bottleneck, so it is silenced unless --verbose=true
+        PrintStream console = System.out;
+        if (!Boolean.parseBoolean(options.getOrDefault("verbose", "false"))) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        TaskManager taskManager;
+        if (store.equals("memory")) {
+            taskManager = new TaskManager(new InMemoryTaskStore(), new OfflineJournal(null), true);
+        } else if (store.equals("mysql")) {
+            taskManager = new TaskManager(true);
+        } else {
+            throw new IllegalArgumentException("Unknown store '" + store + "', expected mysql or memory");
+        }
+
+        TaskApiServer server = new TaskApiServer(taskManager, port);
+        server.start();
+        console.println("TaskApiServer: Listening on port " + server.getPort() + " (" + store + " store).");
+    }
+
+    // --- Routing ---
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            List<String> path = pathSegments(exchange);
+            String method = exchange.getRequestMethod();
+            // path.get(0) is always "api"
+            if (path.size() == 2 && path.get(1).equals("health") && method.equals("GET")) {
+                getHealth(exchange);
+            } else if (path.size() == 2 && path.get(1).equals("profile") && method.equals("GET")) {
+                getProfile(exchange);
+            } else if (path.size() == 2 && path.get(1).equals("sections")) {
+                if (method.equals("GET")) {
+                    getSections(exchange);
+                } else if (method.equals("POST")) {
+                    postSection(exchange);
+                } else {
+                    sendError(exchange, 405, "Method not allowed");
+                }
+            } else if (path.size() == 3 && path.get(1).equals("sections") && method.equals("DELETE")) {
+                deleteSection(exchange, path.get(2));
+            } else if (path.size() == 4 && path.get(1).equals("sections") && path.get(3).equals("tasks")) {
+                if (method.equals("GET")) {
+                    getSectionTasks(exchange, path.get(2));
+                } else if (method.equals("POST")) {
+                    postTask(exchange, path.get(2));
+                } else {
+                    sendError(exchange, 405, "Method not allowed");
+                }
+            } else if (path.size() == 5 && path.get(1).equals("sections") && path.get(3).equals("tasks")
+                    && method.equals("DELETE")) {
+                deleteTask(exchange, path.get(2), path.get(4));
+            } else if (path.size() == 6 && path.get(1).equals("sections") && path.get(3).equals("tasks")
+                    && path.get(5).equals("complete") && method.equals("POST")) {
+                completeTask(exchange, path.get(2), path.get(4));
+            } else if (path.size() == 2 && path.get(1).equals("archive")) {
+                if (method.equals("GET")) {
+                    searchArchive(exchange);
+                } else if (method.equals("POST")) {
+                    postArchive(exchange);
+                } else {
+                    sendError(exchange, 405, "Method not allowed");
+                }
+            } else if (path.size() == 2 && path.get(1).equals("tasks") && method.equals("GET")) {
+                getTasks(exchange);
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("TaskApiServer: Error handling " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + ": " + e);
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // --- Handlers ---
+
+    private void getHealth(HttpExchange exchange) throws IOException {
+        String body = "{\"status\":\"ok\",\"offline\":" + taskManager.isOffline()
+                + ",\"pendingOfflineChanges\":" + taskManager.getPendingOfflineChanges()
+                + ",\"version\":" + taskManager.getVersion() + "}";
+        sendJson(exchange, 200, body);
+    }
+
+    private void getProfile(HttpExchange exchange) throws IOException {
+        if (!JdbcProfiler.isEnabled()) {
+            sendError(exchange, 404, "JDBC profiling is disabled; start with -Dtaskmanager.jdbc.profile=true");
+            return;
+        }
+        byte[] bytes = JdbcProfiler.report().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void getSections(HttpExchange exchange) throws IOException {
+        // Overdue counts change at midnight without a version bump, so the day is part of the ETag
+        String etag = notModifiedOrEtag(exchange, LocalDate.now().toString());
+        if (etag == null) {
+            return;
+        }
+        List<SectionSummary> summaries = taskManager.getSectionSummaries();
+        try (Writer writer = startStream(exchange, etag)) {
+            writer.write('[');
+            StringBuilder json = new StringBuilder(160);
+            for (int i = 0; i < summaries.size(); i++) {
+                json.setLength(0);
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendSectionSummary(json, summaries.get(i));
+                writer.append(json);
+            }
+            writer.write(']');
+        }
+    }
+
+    private void postSection(HttpExchange exchange) throws IOException {
+        String name = requiredField(readBody(exchange), "name");
+        if (taskManager.hasSection(name)) {
+            sendError(exchange, 409, "Section '" + name + "' already exists");
+            return;
+        }
+        if (!taskManager.addSection(name)) {
+            sendError(exchange, 500, "Section '" + name + "' could not be saved");
+            return;
+        }
+        sendJson(exchange, 201, "{\"name\":" + Json.quote(name) + "}");
+    }
+
+    private void deleteSection(HttpExchange exchange, String sectionName) throws IOException {
+        if (!taskManager.hasSection(sectionName) || !taskManager.removeSection(sectionName)) {
+            sendError(exchange, 404, "Section '" + sectionName + "' not found");
+            return;
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private void getSectionTasks(HttpExchange exchange, String sectionName) throws IOException {
+        if (!taskManager.hasSection(sectionName)) {
+            sendError(exchange, 404, "Section '" + sectionName + "' not found");
+            return;
+        }
+        String etag = notModifiedOrEtag(exchange);
+        if (etag == null) {
+            return;
+        }
+        List<Task> tasks = taskManager.getTasksForSection(sectionName);
+        try (Writer writer = startStream(exchange, etag)) {
+            writer.write('[');
+            writeTasks(writer, tasks, task -> sectionName, true);
+            writer.write(']');
+        }
+    }
+
+    private void postTask(HttpExchange exchange, String sectionName) throws IOException {
+        if (!taskManager.hasSection(sectionName)) {
+            sendError(exchange, 404, "Section '" + sectionName + "' not found");
+            return;
+        }
+        Map<String, String> body = readBody(exchange);
+        String name = requiredField(body, "name");
+        Priority priority;
+        LocalDate dueDate;
+        try {
+            priority = Priority.valueOf(requiredField(body, "priority").toUpperCase());
+            dueDate = LocalDate.parse(requiredField(body, "dueDate"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("dueDate must be an ISO date such as 2025-01-31");
+        }
+        Task task = new Task(name, priority, Date.from(dueDate.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        if (!taskManager.addTask(sectionName, task)) {
+            if (taskManager.isSectionLoading(sectionName)) {
+                sendError(exchange, 409, "Section '" + sectionName + "' is still loading; try again shortly");
+            } else {
+                sendError(exchange, 500, "Task '" + name + "' could not be saved");
+            }
+            return;
+        }
+        StringBuilder json = new StringBuilder();
+        appendTask(json, task, sectionName);
+        sendJson(exchange, 201, json.toString());
+    }
+
+    private void deleteTask(HttpExchange exchange, String sectionName, String taskName) throws IOException {
+        for (Task task : taskManager.getTasksForSection(sectionName)) {
+            if (task.getName().equals(taskName)) {
+                if (taskManager.removeTask(sectionName, task)) {
+                    exchange.sendResponseHeaders(204, -1);
+                    return;
+                }
+                break;
+            }
+        }
+        sendError(exchange, 404, "Task '" + taskName + "' not found in section '" + sectionName + "'");
+    }
+
+    private void completeTask(HttpExchange exchange, String sectionName, String taskName) throws IOException {
+        for (Task task : taskManager.getTasksForSection(sectionName)) {
+            if (task.getName().equals(taskName)) {
+                if (task.isCompleted()) {
+                    sendError(exchange, 409, "Task '" + taskName + "' is already completed");
+                } else if (taskManager.completeTask(sectionName, task)) {
+                    StringBuilder json = new StringBuilder();
+                    appendTask(json, task, sectionName);
+                    sendJson(exchange, 200, json.toString());
+                } else {
+                    sendError(exchange, 409, "Task '" + taskName + "' could not be completed");
+                }
+                return;
+            }
+        }
+        sendError(exchange, 404, "Task '" + taskName + "' not found in section '" + sectionName + "'");
+    }
+
+    private void postArchive(HttpExchange exchange) throws IOException {
+        int archived = taskManager.archiveTasks();
+        sendJson(exchange, 200, "{\"archived\":" + archived + ",\"totalArchived\":" + taskManager.getArchivedTaskCount() + "}");
+    }
+
+    private void searchArchive(HttpExchange exchange) throws IOException {
+        Map<String, String> query = queryParameters(exchange);
+        String searchTerm = query.get("q");
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing required query parameter 'q'");
+        }
+        int limit = Integer.parseInt(query.getOrDefault("limit", Integer.toString(DEFAULT_SEARCH_LIMIT)));
+        StringBuilder json = new StringBuilder("[");
+        for (TaskArchive.ArchivedTask archived : taskManager.searchArchive(searchTerm, limit)) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            appendTask(json, archived.getTask(), archived.getSectionName());
+        }
+        sendJson(exchange, 200, json.append(']').toString());
+    }
+
+    private void getTasks(HttpExchange exchange) throws IOException {
+        Map<String, String> query = queryParameters(exchange);
+        String etag = notModifiedOrEtag(exchange);
+        if (etag == null) {
+            return;
+        }
+
+        String searchTerm = query.get("q");
+        if (searchTerm != null) {
+            int limit = Integer.parseInt(query.getOrDefault("limit", Integer.toString(DEFAULT_SEARCH_LIMIT)));
+            List<Task> results = taskManager.searchTasksFuzzy(searchTerm, limit);
+            try (Writer writer = startStream(exchange, etag)) {
+                writer.write('[');
+                writeTasks(writer, results, taskManager.getSectionNamesOf(results)::get, true);
+                writer.write(']');
+            }
+            return;
+        }
+
+        if ("due".equals(query.get("sort"))) {
+            List<Task> sorted = taskManager.getSortedTasksByDueDateAndPriority();
+            try (Writer writer = startStream(exchange, etag)) {
+                writer.write('[');
+                writeTasks(writer, sorted, taskManager.getSectionNamesOf(sorted)::get, true);
+                writer.write(']');
+            }
+            return;
+        }
+
+        // Stream section by section, so only one section's snapshot is held in memory at a time
+        try (Writer writer = startStream(exchange, etag)) {
+            writer.write('[');
+            boolean first = true;
+            for (String sectionName : taskManager.getSectionNames()) {
+                List<Task> tasks = taskManager.getTasksForSection(sectionName);
+                writeTasks(writer, tasks, task -> sectionName, first);
+                first = first && tasks.isEmpty();
+            }
+            writer.write(']');
+        }
+    }
+
+    // --- Response helpers ---
+
+    /**
+     * @return The ETag to send with the response, or null if a 304 has already been sent.
+     */
+    private String notModifiedOrEtag(HttpExchange exchange) throws IOException {
+        return notModifiedOrEtag(exchange, null);
+    }
+
+    /**
+     * @param validity Extra state the response depends on besides the version (e.g. the current
+     *                 day for overdue counts), or null if there is none.
+     * @return The ETag to send with the response, or null if a 304 has already been sent.
+     */
+    private String notModifiedOrEtag(HttpExchange exchange, String validity) throws IOException {
+        String etag = "W/\"" + bootId + "-" + taskManager.getVersion()
+                + (validity != null ? "-" + validity : "") + "\"";
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag))) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(304, -1);
+            return null;
+        }
+        return etag;
+    }
+
+    /**
+     * Sends the headers of a chunked 200 response and returns a buffered writer for its body.
+     */
+    private static Writer startStream(HttpExchange exchange, String etag) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0); // 0 = chunked transfer encoding
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                RESPONSE_BUFFER_BYTES);
+    }
+
+    /**
+     * @param sectionOf Gives each task's section name, or null to leave the "section" field out.
+     */
+    private static void writeTasks(Writer writer, List<Task> tasks, Function<Task, String> sectionOf, boolean first) throws IOException {
+        StringBuilder json = new StringBuilder(128);
+        for (Task task : tasks) {
+            json.setLength(0);
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendTask(json, task, sectionOf.apply(task));
+            writer.append(json);
+        }
+    }
+
+    private static void appendSectionSummary(StringBuilder json, SectionSummary summary) {
+        json.append("{\"name\":").append(Json.quote(summary.getName()))
+                .append(",\"taskCount\":").append(summary.getTaskCount())
+                .append(",\"overdueCount\":").append(summary.getOverdueCount())
+                .append(",\"earliestDueDate\":");
+        if (summary.getEarliestDueDate() == null) {
+            json.append("null");
+        } else {
+            json.append('"').append(toLocalDate(summary.getEarliestDueDate())).append('"');
+        }
+        json.append(",\"taskCountByPriority\":{");
+        Priority[] priorities = Priority.values();
+        for (int i = 0; i < priorities.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(priorities[i].name()).append("\":").append(summary.getTaskCount(priorities[i]));
+        }
+        json.append("}}");
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static void appendTask(StringBuilder json, Task task, String sectionName) {
+        LocalDate dueDate = toLocalDate(task.getDueDate());
+        json.append("{\"name\":").append(Json.quote(task.getName()))
+                .append(",\"priority\":\"").append(task.getPriority().name())
+                .append("\",\"dueDate\":\"").append(dueDate).append('"')
+                .append(",\"completed\":").append(task.isCompleted());
+        if (sectionName != null) {
+            json.append(",\"section\":").append(Json.quote(sectionName));
+        }
+        json.append('}');
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return; // Headers already sent (e.g. failure mid-stream); nothing useful left to do
+        }
+        sendJson(exchange, status, "{\"error\":" + Json.quote(message) + "}");
+    }
+
+    // --- Request helpers ---
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String requiredField(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing required field '" + field + "'");
+        }
+        return value.trim();
+    }
+
+    // Decodes each path segment separately, so section and task names may contain encoded '/'
+    private static List<String> pathSegments(HttpExchange exchange) {
+        List<String> segments = new ArrayList<>();
+        for (String raw : exchange.getRequestURI().getRawPath().split("/")) {
+            if (!raw.isEmpty()) {
+                segments.add(decode(raw));
+            }
+        }
+        return segments;
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    // URLDecoder is meant for form data; keep a literal '+' in a path segment as '+'
+    private static String decode(String segment) {
+        return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,58 @@
+package util;
+
+/**
+ * The CircuitBreaker class tracks whether the database looks healthy so callers can fail fast
+ * instead of waiting for a connect timeout on every request.
+ *
+ * CLOSED - requests go through. After {@code failureThreshold} consecutive failures the breaker opens.
+ * OPEN   - requests are rejected immediately. The breaker is closed again by a successful call,
+ *          which in practice is the background health probe (see DatabaseManager.probe()).
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAtMillis = 0;
+
+    public CircuitBreaker(String name, int failureThreshold) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * @return true if a request may be attempted, false if the breaker is open and the caller should fail fast.
+     */
+    public synchronized boolean allowRequest() {
+        return state == State.CLOSED;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state == State.OPEN) {
+            long downMillis = System.currentTimeMillis() - openedAtMillis;
+            System.out.println("CircuitBreaker[" + name + "]: Closed again after " + downMillis + " ms.");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtMillis = System.currentTimeMillis();
+            System.err.println("CircuitBreaker[" + name + "]: Opened after " + consecutiveFailures + " consecutive failures.");
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -5,13 +5,17 @@ import model.Section;  // Import your Section class
 import model.Task;     // Import your Task class
 
 import java.sql.Connection;       // Explicitly import Connection
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;    // Explicitly import DriverManager
 import java.sql.PreparedStatement; // Explicitly import PreparedStatement
 import java.sql.ResultSet;        // Explicitly import ResultSet
 import java.sql.SQLException;     // Explicitly import SQLException
 import java.sql.Statement;        // Explicitly import Statement
 
+import java.sql.Timestamp;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -22,35 +26,142 @@ import java.util.Date; // For java.util.Date usage
  * The DatabaseManager class handles all interactions with the MySQL database.
  * It provides methods for connecting, saving, loading, updating, and deleting
  * Section and Task data.
+ *
+ * When the database cannot be reached, the public methods throw {@link DatabaseUnavailableException}
+ * instead of returning -1/false, so callers can tell an outage apart from a rejected write.
  */
-public class DatabaseManager {
+public class DatabaseManager implements TaskStore {
 
     // --- Database Connection Details ---
     // IMPORTANT: Replace these with your actual MySQL credentials and database name
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/task_manager_db";
+    // connectTimeout keeps a failing connection attempt short. socketTimeout bounds every read, so a server
+    // that stops answering mid-query fails with SQLState 08S01 (and opens the breaker) instead of hanging.
+    // Such a write may still have been committed; OfflineJournal documents how its replay repeats it
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/task_manager_db?connectTimeout=2000&socketTimeout=5000";
     private static final String DB_USER = "root"; // Your MySQL username
     private static final String DB_PASSWORD = "SQLpass147"; // Your MySQL password
+    private static final int PROBE_TIMEOUT_SECONDS = 2;
+    private static final int DELETE_BATCH_SIZE = 500; // Names per DELETE ... IN (...) statement
+
+    // A single failed connection opens the breaker: every further attempt would just wait for the
+    // same connect timeout. Only a successful probe() closes it again.
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("mysql", 1);
+
+    // Whether tasks.completed_at exists; null until checked on the first connection (see ensureSchema)
+    private volatile Boolean completedAtColumn = null;
 
     /**
      * Establishes a connection to the MySQL database.
-     * @return A Connection object if successful, null otherwise.
+     * @return A Connection object, never null.
+     * @throws DatabaseUnavailableException if the circuit breaker is open or the connection attempt failed.
      */
     private Connection getConnection() {
+        if (!circuitBreaker.allowRequest()) {
+            throw new DatabaseUnavailableException("Database circuit breaker is open; failing fast.");
+        }
         try {
-            // Explicitly load the MySQL JDBC driver.
-            // This is often not strictly necessary for modern JDBC drivers (4.0+),
-            // but can resolve "No suitable driver found" issues in certain environments.
-            Class.forName("com.mysql.cj.jdbc.Driver"); // UNCOMMENT THIS LINE
+            Connection conn = openConnection();
+            circuitBreaker.recordSuccess();
+            if (completedAtColumn == null) {
+                try {
+                    ensureSchema(conn);
+                } catch (SQLException e) {
+                    conn.close();
+                    throw e;
+                }
+            }
+            return conn;
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Database connection failed: " + e.getMessage());
+            circuitBreaker.recordFailure();
+            throw new DatabaseUnavailableException("Database connection failed: " + e.getMessage(), e);
+        }
+    }
+
+    private Connection openConnection() throws SQLException, ClassNotFoundException {
+        // Explicitly load the MySQL JDBC driver.
+        // This is often not strictly necessary for modern JDBC drivers (4.0+),
+        // but can resolve "No suitable driver found" issues in certain environments.
+        Class.forName("com.mysql.cj.jdbc.Driver");
+        // A no-op unless profiling is enabled with -Dtaskmanager.jdbc.profile=true
+        return JdbcProfiler.wrap(DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD));
+    }
 
-            return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+    /**
+     * Adds tasks.completed_at to databases created before task completion existed. Without it every
+     * task INSERT and SELECT would fail with SQLState 42S22 (unknown column). If the column cannot be
+     * added, e.g. for lack of ALTER privilege, the task SQL falls back to the old column set and
+     * completion is not persisted.
+     * @throws SQLException only if the connection was lost, so the check runs again on the next connection.
+     */
+    private synchronized void ensureSchema(Connection conn) throws SQLException {
+        if (completedAtColumn != null) {
+            return;
+        }
+        try {
+            DatabaseMetaData metaData = conn.getMetaData();
+            try (ResultSet columns = metaData.getColumns(conn.getCatalog(), null, "tasks", "completed_at")) {
+                if (columns.next()) {
+                    completedAtColumn = true;
+                    return;
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE tasks ADD COLUMN completed_at DATETIME NULL");
+            }
+            completedAtColumn = true;
+            System.out.println("DatabaseManager: Added missing column tasks.completed_at.");
         } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
-            // In a real application, you'd log this error and perhaps show a user-friendly message.
-            return null;
-        } catch (ClassNotFoundException e) { // Add this catch block for ClassNotFoundException
-            System.err.println("MySQL JDBC Driver not found: " + e.getMessage());
-            return null;
+            String sqlState = e.getSQLState();
+            if (sqlState != null && sqlState.startsWith("08")) {
+                throw e;
+            }
+            completedAtColumn = false;
+            System.err.println("DatabaseManager: tasks.completed_at is missing and could not be added ("
+                    + e.getMessage() + "); task completion will not be saved to the database.");
+        }
+    }
+
+    /**
+     * Treats SQLState class 08 (connection exception) as an outage rather than an ordinary SQL error.
+     * @throws DatabaseUnavailableException if the exception means the connection was lost.
+     */
+    private void rethrowIfConnectionLost(SQLException e) {
+        String sqlState = e.getSQLState();
+        if (sqlState != null && sqlState.startsWith("08")) {
+            circuitBreaker.recordFailure();
+            throw new DatabaseUnavailableException("Lost connection to database: " + e.getMessage(), e);
+        }
+    }
+
+    // --- Health ---
+
+    /**
+     * @return true if the circuit breaker is closed, i.e. calls are expected to reach the database.
+     */
+    @Override
+    public boolean isAvailable() {
+        return circuitBreaker.allowRequest();
+    }
+
+    /**
+     * Checks whether the database is reachable, bypassing the circuit breaker. A successful probe
+     * closes the breaker; a failed one keeps (or puts) it open. Meant to be called from a
+     * background thread, never from the UI thread.
+     * @return true if the database answered.
+     */
+    @Override
+    public boolean probe() {
+        try (Connection conn = openConnection()) {
+            if (conn.isValid(PROBE_TIMEOUT_SECONDS)) {
+                circuitBreaker.recordSuccess();
+                return true;
+            }
+        } catch (SQLException | ClassNotFoundException e) {
+            // Expected while the database is down; the breaker already reports the outage once.
         }
+        circuitBreaker.recordFailure();
+        return false;
     }
 
     // --- CRUD Operations for Sections ---
@@ -61,6 +172,7 @@ public class DatabaseManager {
      * @param sectionName The name of the section to save.
      * @return The ID of the newly inserted section, or -1 if insertion failed or section already exists.
      */
+    @Override
     public int saveSection(String sectionName) {
         String sql = "INSERT IGNORE INTO sections (name) VALUES (?)"; // INSERT IGNORE prevents errors if name exists
         try (Connection conn = getConnection();
@@ -83,6 +195,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             System.err.println("Error saving section '" + sectionName + "': " + e.getMessage());
+            rethrowIfConnectionLost(e);
         }
         return -1; // Indicate failure or no new insertion
     }
@@ -91,6 +204,7 @@ public class DatabaseManager {
      * Loads all sections from the database.
      * @return A Map where keys are section names and values are Section objects (without tasks loaded yet).
      */
+    @Override
     public Map<String, Section> loadAllSections() {
         // Using LinkedHashMap to preserve the order in which sections were added to the DB (by ID)
         Map<String, Section> sections = new LinkedHashMap<>();
@@ -114,6 +228,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             System.err.println("Error loading sections: " + e.getMessage());
+            rethrowIfConnectionLost(e);
         }
         return sections;
     }
@@ -124,6 +239,7 @@ public class DatabaseManager {
      * @param sectionName The name of the section to delete.
      * @return true if the section was deleted, false otherwise.
      */
+    @Override
     public boolean deleteSection(String sectionName) {
         String sql = "DELETE FROM sections WHERE name = ?";
         try (Connection conn = getConnection();
@@ -139,6 +255,7 @@ public class DatabaseManager {
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting section '" + sectionName + "': " + e.getMessage());
+            rethrowIfConnectionLost(e);
             return false;
         }
     }
@@ -152,9 +269,13 @@ public class DatabaseManager {
      * @param sectionName The name of the section this task belongs to.
      * @return The ID of the saved/updated task, or -1 if failed.
      */
+    @Override
     public int saveTask(Task task, String sectionName) {
         String selectSectionIdSql = "SELECT id FROM sections WHERE name = ?";
-        String insertTaskSql = "INSERT INTO tasks (name, priority, due_date, section_id) VALUES (?, ?, ?, ?)";
+        boolean withCompletedAt = !Boolean.FALSE.equals(completedAtColumn);
+        String insertTaskSql = withCompletedAt
+                ? "INSERT INTO tasks (name, priority, due_date, section_id, completed_at) VALUES (?, ?, ?, ?, ?)"
+                : "INSERT INTO tasks (name, priority, due_date, section_id) VALUES (?, ?, ?, ?)";
         // String updateTaskSql = "UPDATE tasks SET name = ?, priority = ?, due_date = ?, section_id = ? WHERE id = ?"; // Uncomment if adding Task ID
 
         int sectionId = -1;
@@ -184,6 +305,9 @@ public class DatabaseManager {
                 pstmt.setString(2, task.getPriority().name()); // Convert enum to String
                 pstmt.setDate(3, new java.sql.Date(task.getDueDate().getTime())); // Convert util.Date to sql.Date
                 pstmt.setInt(4, sectionId);
+                if (withCompletedAt) {
+                    pstmt.setTimestamp(5, task.isCompleted() ? new Timestamp(task.getCompletedDate().getTime()) : null);
+                }
 
                 int affectedRows = pstmt.executeUpdate();
                 if (affectedRows > 0) {
@@ -196,6 +320,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             System.err.println("Error saving task '" + task.getName() + "': " + e.getMessage());
+            rethrowIfConnectionLost(e);
         }
         return -1;
     }
@@ -205,9 +330,12 @@ public class DatabaseManager {
      * @param sectionName The name of the section to load tasks for.
      * @return A List of Task objects for the specified section.
      */
+    @Override
     public List<Task> loadTasksForSection(String sectionName) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT t.name, t.priority, t.due_date FROM tasks t JOIN sections s ON t.section_id = s.id WHERE s.name = ?";
+        boolean withCompletedAt = !Boolean.FALSE.equals(completedAtColumn);
+        String sql = "SELECT t.name, t.priority, t.due_date" + (withCompletedAt ? ", t.completed_at" : "")
+                + " FROM tasks t JOIN sections s ON t.section_id = s.id WHERE s.name = ?";
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -223,12 +351,18 @@ public class DatabaseManager {
                     String name = rs.getString("name");
                     Priority priority = Priority.valueOf(rs.getString("priority")); // Convert String back to enum
                     Date dueDate = rs.getDate("due_date"); // Returns java.sql.Date, compatible with java.util.Date
+                    Timestamp completedAt = withCompletedAt ? rs.getTimestamp("completed_at") : null; // NULL while the task is open
 
-                    tasks.add(new Task(name, priority, dueDate));
+                    Task task = new Task(name, priority, dueDate);
+                    if (completedAt != null) {
+                        task.setCompletedDate(new Date(completedAt.getTime()));
+                    }
+                    tasks.add(task);
                 }
             }
         } catch (SQLException e) {
             System.err.println("Error loading tasks for section '" + sectionName + "': " + e.getMessage());
+            rethrowIfConnectionLost(e);
         } catch (IllegalArgumentException e) {
             System.err.println("Error parsing priority enum: " + e.getMessage());
         }
@@ -241,6 +375,7 @@ public class DatabaseManager {
      * @param sectionName The name of the section the task belongs to.
      * @return true if the task was deleted, false otherwise.
      */
+    @Override
     public boolean deleteTask(String taskName, String sectionName) {
         String sql = "DELETE t FROM tasks t JOIN sections s ON t.section_id = s.id WHERE t.name = ? AND s.name = ?";
         try (Connection conn = getConnection();
@@ -257,6 +392,77 @@ public class DatabaseManager {
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting task '" + taskName + "' from section '" + sectionName + "': " + e.getMessage());
+            rethrowIfConnectionLost(e);
+            return false;
+        }
+    }
+
+    /**
+     * Deletes tasks of several sections over a single connection, in as few statements as possible.
+     * The statements run in one transaction, so on failure no task is deleted.
+     * @param taskNamesBySection The names of the tasks to delete, keyed by section name.
+     * @return The number of tasks deleted, or -1 if the delete failed.
+     */
+    @Override
+    public int deleteTasks(Map<String, ? extends Collection<String>> taskNamesBySection) {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int affectedRows = 0;
+                for (Map.Entry<String, ? extends Collection<String>> entry : taskNamesBySection.entrySet()) {
+                    String sectionName = entry.getKey();
+                    List<String> names = new ArrayList<>(entry.getValue());
+                    // One DELETE ... IN (...) per batch instead of one DELETE per task
+                    for (int from = 0; from < names.size(); from += DELETE_BATCH_SIZE) {
+                        List<String> batch = names.subList(from, Math.min(from + DELETE_BATCH_SIZE, names.size()));
+                        String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+                        String sql = "DELETE t FROM tasks t JOIN sections s ON t.section_id = s.id WHERE s.name = ? AND t.name IN (" + placeholders + ")";
+                        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                            pstmt.setString(1, sectionName);
+                            for (int i = 0; i < batch.size(); i++) {
+                                pstmt.setString(i + 2, batch.get(i));
+                            }
+                            affectedRows += pstmt.executeUpdate();
+                        }
+                    }
+                }
+                conn.commit();
+                return affectedRows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error deleting tasks from " + taskNamesBySection.size() + " sections: " + e.getMessage());
+            rethrowIfConnectionLost(e);
+            return -1;
+        }
+    }
+
+    /**
+     * Marks the open tasks with the given name in a section as completed.
+     * @param taskName The name of the task to complete.
+     * @param sectionName The name of the section the task belongs to.
+     * @param completedDate When the task was completed.
+     * @return true if at least one task was marked, false otherwise.
+     */
+    @Override
+    public boolean completeTask(String taskName, String sectionName, Date completedDate) {
+        String sql = "UPDATE tasks t JOIN sections s ON t.section_id = s.id SET t.completed_at = ? "
+                + "WHERE t.name = ? AND s.name = ? AND t.completed_at IS NULL";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (Boolean.FALSE.equals(completedAtColumn)) {
+                System.err.println("Cannot complete task '" + taskName + "': tasks.completed_at is missing.");
+                return false;
+            }
+            pstmt.setTimestamp(1, new Timestamp(completedDate.getTime()));
+            pstmt.setString(2, taskName);
+            pstmt.setString(3, sectionName);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error completing task '" + taskName + "' in section '" + sectionName + "': " + e.getMessage());
+            rethrowIfConnectionLost(e);
             return false;
         }
     }
@@ -0,0 +1,18 @@
+package util;
+
+/**
+ * Thrown by DatabaseManager when the database cannot be reached, either because a connection
+ * attempt failed or because the circuit breaker is open. Unlike ordinary SQL errors (which are
+ * still reported through -1/false return values), this means the operation was never applied
+ * and may be retried later.
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+
+    public DatabaseUnavailableException(String message) {
+        super(message);
+    }
+
+    public DatabaseUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,157 @@
+package util;
+
+import model.Priority;
+import model.Section;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The InMemoryTaskStore class is an embedded TaskStore that keeps everything in the JVM heap.
+ * It mirrors the MySQL schema's behaviour (unique section names, auto-increment IDs, cascading
+ * section deletes) so TaskManager behaves the same on top of it, without any network or
+ * database server. Nothing is persisted after the JVM exits.
+ *
+ * All methods are synchronized, so the store can be shared by many threads.
+ */
+public class InMemoryTaskStore implements TaskStore {
+
+    // Stored copies of a task row, so callers mutating their Task objects don't change the "database"
+    private static final class TaskRow {
+        final int id;
+        final String name;
+        final Priority priority;
+        final long dueDateMillis;
+        Long completedMillis; // null while the task is open
+
+        TaskRow(int id, Task task) {
+            this.id = id;
+            this.name = task.getName();
+            this.priority = task.getPriority();
+            this.dueDateMillis = task.getDueDate().getTime();
+            this.completedMillis = task.isCompleted() ? task.getCompletedDate().getTime() : null;
+        }
+    }
+
+    private final Map<String, Integer> sectionIds = new LinkedHashMap<>();
+    private final Map<String, List<TaskRow>> tasksBySection = new LinkedHashMap<>();
+    private int nextSectionId = 1;
+    private int nextTaskId = 1;
+
+    @Override
+    public synchronized int saveSection(String sectionName) {
+        if (sectionIds.containsKey(sectionName)) {
+            return -1; // Same as INSERT IGNORE on the UNIQUE name column
+        }
+        int id = nextSectionId++;
+        sectionIds.put(sectionName, id);
+        tasksBySection.put(sectionName, new ArrayList<>());
+        return id;
+    }
+
+    @Override
+    public synchronized Map<String, Section> loadAllSections() {
+        Map<String, Section> sections = new LinkedHashMap<>();
+        for (String name : sectionIds.keySet()) {
+            sections.put(name, new Section(name));
+        }
+        return sections;
+    }
+
+    @Override
+    public synchronized boolean deleteSection(String sectionName) {
+        tasksBySection.remove(sectionName);
+        return sectionIds.remove(sectionName) != null;
+    }
+
+    @Override
+    public synchronized int saveTask(Task task, String sectionName) {
+        List<TaskRow> rows = tasksBySection.get(sectionName);
+        if (rows == null) {
+            System.err.println("Section '" + sectionName + "' not found when saving task.");
+            return -1;
+        }
+        int id = nextTaskId++;
+        rows.add(new TaskRow(id, task));
+        return id;
+    }
+
+    @Override
+    public synchronized List<Task> loadTasksForSection(String sectionName) {
+        List<Task> tasks = new ArrayList<>();
+        List<TaskRow> rows = tasksBySection.get(sectionName);
+        if (rows != null) {
+            for (TaskRow row : rows) {
+                Task task = new Task(row.name, row.priority, new Date(row.dueDateMillis));
+                if (row.completedMillis != null) {
+                    task.setCompletedDate(new Date(row.completedMillis));
+                }
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public synchronized boolean deleteTask(String taskName, String sectionName) {
+        List<TaskRow> rows = tasksBySection.get(sectionName);
+        if (rows == null) {
+            return false;
+        }
+        boolean deleted = false;
+        for (Iterator<TaskRow> it = rows.iterator(); it.hasNext(); ) {
+            if (it.next().name.equals(taskName)) {
+                it.remove();
+                deleted = true;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized int deleteTasks(Map<String, ? extends Collection<String>> taskNamesBySection) {
+        int deleted = 0;
+        for (Map.Entry<String, ? extends Collection<String>> entry : taskNamesBySection.entrySet()) {
+            List<TaskRow> rows = tasksBySection.get(entry.getKey());
+            if (rows != null) {
+                int before = rows.size();
+                Collection<String> taskNames = entry.getValue();
+                rows.removeIf(row -> taskNames.contains(row.name));
+                deleted += before - rows.size();
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized boolean completeTask(String taskName, String sectionName, Date completedDate) {
+        List<TaskRow> rows = tasksBySection.get(sectionName);
+        if (rows == null) {
+            return false;
+        }
+        boolean completed = false;
+        for (TaskRow row : rows) {
+            if (row.name.equals(taskName) && row.completedMillis == null) {
+                row.completedMillis = completedDate.getTime();
+                completed = true;
+            }
+        }
+        return completed;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public boolean probe() {
+        return true;
+    }
+}
@@ -0,0 +1,295 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * The JdbcProfiler class is an opt-in profiling layer for the JDBC calls DatabaseManager makes.
+ * Enable it with {@code -Dtaskmanager.jdbc.profile=true}; when disabled, {@link #wrap(Connection)}
+ * returns the connection untouched and {@link #action(String)} costs nothing.
+ *
+ * When enabled, connections are wrapped in dynamic proxies that time every statement execution and
+ * count the rows each query returns, grouped by SQL template (the SQL with literals replaced by '?').
+ * Callers mark user actions with {@link #action(String)}; the profiler then records how many
+ * statements each action ran and flags likely N+1 patterns - the same template executed at least
+ * {@code taskmanager.jdbc.nPlusOneThreshold} times (default 5) within one action.
+ *
+ * The report is available on demand through {@link #report()} and is printed at JVM shutdown.
+ */
+public final class JdbcProfiler {
+
+    private static final boolean ENABLED = Boolean.getBoolean("taskmanager.jdbc.profile");
+    private static final int N_PLUS_ONE_THRESHOLD = Integer.getInteger("taskmanager.jdbc.nPlusOneThreshold", 5);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, TemplateStats> templates = new ConcurrentHashMap<>();
+    private static final Map<String, ActionStats> actions = new ConcurrentHashMap<>();
+    // "action -> template" -> worst repetition count seen, for N+1 findings
+    private static final Map<String, NPlusOne> nPlusOnes = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ActiveAction> currentAction = new ThreadLocal<>();
+
+    private static final Action NO_OP_ACTION = () -> { };
+
+    static {
+        if (ENABLED) {
+            System.out.println("JdbcProfiler: JDBC profiling enabled (N+1 threshold " + N_PLUS_ONE_THRESHOLD + ").");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(report()), "jdbc-profiler-report"));
+        }
+    }
+
+    private JdbcProfiler() {
+    }
+
+    /**
+     * A user action scope; close it when the action is over. Not thrown from close().
+     */
+    public interface Action extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Starts a user action on the current thread. Nested actions are folded into the outermost one,
+     * so e.g. addTask calling addSection is reported as a single addTask.
+     */
+    public static Action action(String name) {
+        if (!ENABLED || currentAction.get() != null) {
+            return NO_OP_ACTION;
+        }
+        ActiveAction active = new ActiveAction(name);
+        currentAction.set(active);
+        return () -> {
+            currentAction.remove();
+            active.finish();
+        };
+    }
+
+    /**
+     * @return The connection wrapped in a profiling proxy, or the connection itself when profiling is disabled.
+     */
+    public static Connection wrap(Connection connection) {
+        if (!ENABLED || connection == null) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("prepareStatement") && result instanceof PreparedStatement) {
+                return wrapStatement(PreparedStatement.class, (PreparedStatement) result, (String) args[0]);
+            }
+            if (name.equals("createStatement") && result instanceof Statement) {
+                return wrapStatement(Statement.class, (Statement) result, null);
+            }
+            return result;
+        });
+    }
+
+    private static <T extends Statement> T wrapStatement(Class<T> type, T statement, String preparedSql) {
+        return proxy(type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            // Plain Statements pass their SQL to execute*(sql); PreparedStatements were given it up front
+            String sql = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : preparedSql;
+            TemplateStats stats = templates.computeIfAbsent(template(sql), TemplateStats::new);
+            long start = System.nanoTime();
+            Object result = invoke(target, method, args);
+            stats.record(System.nanoTime() - start);
+            ActiveAction active = currentAction.get();
+            if (active != null) {
+                active.statementExecuted(stats.template);
+            }
+            if (result instanceof ResultSet) {
+                return wrapResultSet((ResultSet) result, stats);
+            }
+            if (result instanceof Integer && (Integer) result > 0) {
+                stats.rows.add((Integer) result); // Affected rows of an update
+            }
+            return result;
+        });
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet, TemplateStats stats) {
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                stats.rows.increment();
+            }
+            return result;
+        });
+    }
+
+    static String template(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        String template = STRING_LITERAL.matcher(sql).replaceAll("?");
+        template = NUMBER_LITERAL.matcher(template).replaceAll("?");
+        return WHITESPACE.matcher(template.trim()).replaceAll(" ");
+    }
+
+    // --- Reporting ---
+
+    /**
+     * @return A human-readable report of everything recorded so far.
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("JdbcProfiler report\n");
+        sb.append(String.format("%-8s %10s %10s %10s %10s  %s%n", "count", "total(ms)", "avg(ms)", "max(ms)", "rows", "sql"));
+        List<TemplateStats> byTotalTime = new ArrayList<>(templates.values());
+        byTotalTime.sort((a, b) -> Long.compare(b.totalNanos.sum(), a.totalNanos.sum()));
+        for (TemplateStats stats : byTotalTime) {
+            long count = stats.count.sum();
+            double totalMillis = stats.totalNanos.sum() / 1e6;
+            sb.append(String.format("%-8d %10.1f %10.2f %10.2f %10d  %s%n", count, totalMillis,
+                    count == 0 ? 0 : totalMillis / count, stats.maxNanos.get() / 1e6, stats.rows.sum(), stats.template));
+        }
+
+        sb.append("\nStatements per action\n");
+        sb.append(String.format("%-28s %8s %12s %8s%n", "action", "runs", "avg stmts", "max"));
+        List<ActionStats> byName = new ArrayList<>(actions.values());
+        byName.sort((a, b) -> a.name.compareTo(b.name));
+        for (ActionStats stats : byName) {
+            long runs = stats.runs.sum();
+            sb.append(String.format("%-28s %8d %12.1f %8d%n", stats.name, runs,
+                    runs == 0 ? 0 : (double) stats.statements.sum() / runs, stats.maxStatements.get()));
+        }
+
+        sb.append("\nPossible N+1 patterns (same statement >= ").append(N_PLUS_ONE_THRESHOLD).append(" times in one action)\n");
+        if (nPlusOnes.isEmpty()) {
+            sb.append("  none\n");
+        }
+        for (NPlusOne finding : nPlusOnes.values()) {
+            sb.append(String.format("  %s: %d occurrence(s), up to %d executions of: %s%n",
+                    finding.action, finding.occurrences.sum(), finding.maxRepetitions.get(), finding.template));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Clears everything recorded so far.
+     */
+    public static void reset() {
+        templates.clear();
+        actions.clear();
+        nPlusOnes.clear();
+    }
+
+    // --- Internals ---
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(JdbcProfiler.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause(); // Rethrow the driver's own SQLException
+        }
+    }
+
+    private static final class TemplateStats {
+        final String template;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder rows = new LongAdder();
+
+        TemplateStats(String template) {
+            this.template = template;
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    private static final class ActionStats {
+        final String name;
+        final LongAdder runs = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final AtomicLong maxStatements = new AtomicLong();
+
+        ActionStats(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class NPlusOne {
+        final String action;
+        final String template;
+        final LongAdder occurrences = new LongAdder();
+        final AtomicLong maxRepetitions = new AtomicLong();
+
+        NPlusOne(String action, String template) {
+            this.action = action;
+            this.template = template;
+        }
+    }
+
+    // Per-thread state of the action in progress; only touched by its own thread
+    private static final class ActiveAction {
+        final String name;
+        final Map<String, Integer> executionsByTemplate = new HashMap<>();
+        int statements = 0;
+
+        ActiveAction(String name) {
+            this.name = name;
+        }
+
+        void statementExecuted(String template) {
+            statements++;
+            executionsByTemplate.merge(template, 1, Integer::sum);
+        }
+
+        void finish() {
+            ActionStats stats = actions.computeIfAbsent(name, ActionStats::new);
+            stats.runs.increment();
+            stats.statements.add(statements);
+            stats.maxStatements.accumulateAndGet(statements, Math::max);
+
+            for (Map.Entry<String, Integer> entry : executionsByTemplate.entrySet()) {
+                int repetitions = entry.getValue();
+                if (repetitions >= N_PLUS_ONE_THRESHOLD) {
+                    NPlusOne finding = nPlusOnes.computeIfAbsent(name + " -> " + entry.getKey(),
+                            key -> new NPlusOne(name, entry.getKey()));
+                    finding.occurrences.increment();
+                    finding.maxRepetitions.accumulateAndGet(repetitions, Math::max);
+                    System.err.println("JdbcProfiler: Possible N+1 in action '" + name + "': " + repetitions
+                            + " executions of " + entry.getKey());
+                }
+            }
+        }
+    }
+}
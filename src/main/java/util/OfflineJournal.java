@@ -0,0 +1,373 @@
+package util;
+
+import model.Priority;
+import model.Task;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The OfflineJournal class records mutations that could not be written to the database
+ * because it was unavailable, and replays them in order once it is reachable again.
+ *
+ * Entries are kept in memory and appended to a local file (one tab-separated line per entry),
+ * so mutations made during an outage survive an application restart. A journal created with a
+ * null file is kept in memory only.
+ *
+ * The file starts with a fixed-width header line counting the entries at its head that were
+ * already replayed. Replay updates that count in place after every entry, so a crash in the middle
+ * of a replay does not apply the same entries again; the file is compacted when a replay finishes.
+ *
+ * Replay is still at-least-once for the entry in flight: a write that reached the database but
+ * whose answer was lost (e.g. a socket timeout, SQLState 08S01) is journaled and written again,
+ * and ADD_TASK is a plain INSERT, so such a task ends up in the database twice. Section entries,
+ * REMOVE_TASK and COMPLETE_TASK are harmless to repeat.
+ */
+public class OfflineJournal {
+
+    public enum Operation { ADD_SECTION, REMOVE_SECTION, ADD_TASK, REMOVE_TASK, COMPLETE_TASK }
+
+    /**
+     * A single journaled mutation. Task fields are only set for task operations, the completed
+     * date only for COMPLETE_TASK.
+     */
+    public static final class Entry {
+        private final Operation operation;
+        private final String sectionName;
+        private final String taskName;
+        private final Priority priority;
+        private final Date dueDate;
+        private final Date completedDate;
+
+        private Entry(Operation operation, String sectionName, String taskName, Priority priority, Date dueDate,
+                      Date completedDate) {
+            this.operation = operation;
+            this.sectionName = sectionName;
+            this.taskName = taskName;
+            this.priority = priority;
+            this.dueDate = dueDate;
+            this.completedDate = completedDate;
+        }
+
+        public static Entry addSection(String sectionName) {
+            return new Entry(Operation.ADD_SECTION, sectionName, null, null, null, null);
+        }
+
+        public static Entry removeSection(String sectionName) {
+            return new Entry(Operation.REMOVE_SECTION, sectionName, null, null, null, null);
+        }
+
+        public static Entry addTask(String sectionName, Task task) {
+            return new Entry(Operation.ADD_TASK, sectionName, task.getName(), task.getPriority(), task.getDueDate(), null);
+        }
+
+        public static Entry removeTask(String sectionName, String taskName) {
+            return new Entry(Operation.REMOVE_TASK, sectionName, taskName, null, null, null);
+        }
+
+        public static Entry completeTask(String sectionName, String taskName, Date completedDate) {
+            return new Entry(Operation.COMPLETE_TASK, sectionName, taskName, null, null, completedDate);
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public String getSectionName() {
+            return sectionName;
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public Date getDueDate() {
+            return dueDate;
+        }
+
+        public Date getCompletedDate() {
+            return completedDate;
+        }
+
+        private String toLine() {
+            return operation + "\t" + escape(sectionName) + "\t" + escape(taskName) + "\t"
+                    + (priority == null ? "" : priority.name()) + "\t"
+                    + (dueDate == null ? "" : Long.toString(dueDate.getTime())) + "\t"
+                    + (completedDate == null ? "" : Long.toString(completedDate.getTime()));
+        }
+
+        private static Entry fromLine(String line) {
+            String[] fields = line.split("\t", -1);
+            Operation operation = Operation.valueOf(fields[0]);
+            String taskName = fields[2].isEmpty() ? null : unescape(fields[2]);
+            Priority priority = fields[3].isEmpty() ? null : Priority.valueOf(fields[3]);
+            Date dueDate = fields[4].isEmpty() ? null : new Date(Long.parseLong(fields[4]));
+            // Journals written before task completion existed have five fields
+            Date completedDate = (fields.length < 6 || fields[5].isEmpty()) ? null : new Date(Long.parseLong(fields[5]));
+            return new Entry(operation, unescape(fields[1]), taskName, priority, dueDate, completedDate);
+        }
+
+        @Override
+        public String toString() {
+            return operation + " section='" + sectionName + "'" + (taskName == null ? "" : " task='" + taskName + "'");
+        }
+    }
+
+    private static final String HEADER_PREFIX = "#replayed=";
+    private static final int HEADER_DIGITS = 10;
+
+    private final Path file;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private final Object replayLock = new Object();
+    // Entries at the head of the file that were replayed but not yet compacted away; guarded by this
+    private long replayedInFile = 0;
+
+    /**
+     * Opens the journal at the default location, {@code ~/.taskmanager/offline-journal.tsv},
+     * unless overridden with the {@code taskmanager.journal} system property.
+     */
+    public OfflineJournal() {
+        this(Paths.get(System.getProperty("taskmanager.journal",
+                Paths.get(System.getProperty("user.home"), ".taskmanager", "offline-journal.tsv").toString())));
+    }
+
+    public OfflineJournal(Path file) {
+        this.file = file;
+        recover();
+    }
+
+    private void recover() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            long alreadyReplayed = 0;
+            long skipped = 0;
+            boolean hasHeader = false;
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.startsWith(HEADER_PREFIX)) {
+                    hasHeader = true;
+                    alreadyReplayed = parseReplayedCount(line);
+                } else if (!line.isEmpty()) {
+                    if (skipped < alreadyReplayed) {
+                        skipped++; // Applied by a replay that did not get to compact the file
+                        continue;
+                    }
+                    entries.addLast(Entry.fromLine(line));
+                }
+            }
+            if (skipped > 0) {
+                System.out.println("OfflineJournal: Skipped " + skipped + " entries already replayed before a restart.");
+            }
+            if (!entries.isEmpty()) {
+                System.out.println("OfflineJournal: Recovered " + entries.size() + " pending entries from " + file + ".");
+            }
+            if (!hasHeader || skipped > 0 || entries.isEmpty()) {
+                rewriteFile(); // Compact, and give journals written before the header existed one
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("OfflineJournal: Could not read journal file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long parseReplayedCount(String header) {
+        try {
+            return Long.parseLong(header.substring(HEADER_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            // A torn header update; replaying from the start is the safe direction
+            System.err.println("OfflineJournal: Unreadable replay count '" + header + "'; replaying every entry.");
+            return 0;
+        }
+    }
+
+    private static String header(long replayed) {
+        return HEADER_PREFIX + String.format("%0" + HEADER_DIGITS + "d", replayed);
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return A snapshot of the pending entries, oldest first.
+     */
+    public synchronized List<Entry> getPendingEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    /**
+     * Appends an entry to the end of the journal and to the journal file.
+     */
+    public synchronized void append(Entry entry) {
+        entries.addLast(entry);
+        if (file == null) {
+            System.out.println("OfflineJournal: Journaled " + entry + " in memory (" + entries.size() + " pending).");
+            return;
+        }
+        try {
+            if (!Files.exists(file)) {
+                rewriteFile(); // Header plus every pending entry, this one included
+                System.out.println("OfflineJournal: Journaled " + entry + " (" + entries.size() + " pending).");
+                return;
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(entry.toLine());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            // The entry is still kept in memory and will be replayed if the app stays open.
+            System.err.println("OfflineJournal: Could not persist entry " + entry + ": " + e.getMessage());
+        }
+        System.out.println("OfflineJournal: Journaled " + entry + " (" + entries.size() + " pending).");
+    }
+
+    /**
+     * Replays pending entries against the database, oldest first. Stops at the first entry that
+     * fails because the database is unavailable, leaving it and everything after it in the journal.
+     * Entries the database rejects (e.g. a duplicate section) are logged and dropped, just like a
+     * rejected write would be when online.
+     *
+     * The journal lock is not held during database calls, so {@link #append(Entry)} stays fast
+     * while a replay is running; only one replay runs at a time.
+     * @return The number of entries removed from the journal.
+     */
+    public int replay(TaskStore store) {
+        synchronized (replayLock) {
+            int replayed = 0;
+            while (true) {
+                Entry entry;
+                synchronized (this) {
+                    entry = entries.peekFirst();
+                }
+                if (entry == null) {
+                    break;
+                }
+                try {
+                    if (!apply(entry, store)) {
+                        System.err.println("OfflineJournal: Database rejected " + entry + "; dropping it.");
+                    }
+                } catch (DatabaseUnavailableException e) {
+                    System.err.println("OfflineJournal: Database still unavailable, " + size() + " entries left to replay.");
+                    break;
+                }
+                synchronized (this) {
+                    entries.removeFirst();
+                    recordReplayed();
+                }
+                replayed++;
+            }
+            if (replayed > 0) {
+                synchronized (this) {
+                    rewriteFile();
+                    System.out.println("OfflineJournal: Replayed " + replayed + " entries, " + entries.size() + " pending.");
+                }
+            }
+            return replayed;
+        }
+    }
+
+    private static boolean apply(Entry entry, TaskStore store) {
+        switch (entry.getOperation()) {
+            case ADD_SECTION:
+                return store.saveSection(entry.getSectionName()) != -1;
+            case REMOVE_SECTION:
+                return store.deleteSection(entry.getSectionName());
+            case ADD_TASK:
+                Task task = new Task(entry.getTaskName(), entry.getPriority(), entry.getDueDate());
+                return store.saveTask(task, entry.getSectionName()) != -1;
+            case REMOVE_TASK:
+                return store.deleteTask(entry.getTaskName(), entry.getSectionName());
+            case COMPLETE_TASK:
+                return store.completeTask(entry.getTaskName(), entry.getSectionName(), entry.getCompletedDate());
+            default:
+                return false;
+        }
+    }
+
+    // Caller holds this. Counts one more replayed entry in the file header, overwriting it in place.
+    private void recordReplayed() {
+        if (file == null) {
+            return;
+        }
+        replayedInFile++;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(header(replayedInFile).getBytes(StandardCharsets.US_ASCII)), 0);
+        } catch (IOException e) {
+            System.err.println("OfflineJournal: Could not record replay progress in " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Caller holds this (or is the constructor). Replaces the file with the pending entries, atomically.
+    private void rewriteFile() {
+        if (file == null) {
+            return;
+        }
+        try {
+            if (entries.isEmpty()) {
+                Files.deleteIfExists(file);
+                replayedInFile = 0;
+                return;
+            }
+            List<String> lines = new ArrayList<>();
+            lines.add(header(0));
+            for (Entry entry : entries) {
+                lines.add(entry.toLine());
+            }
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            replayedInFile = 0;
+        } catch (IOException e) {
+            System.err.println("OfflineJournal: Could not rewrite journal file " + file + ": " + e.getMessage());
+        }
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't': sb.append('\t'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    default: sb.append(next); break;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
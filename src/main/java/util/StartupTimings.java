@@ -0,0 +1,53 @@
+package util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The StartupTimings class records how long each startup phase took, measured from
+ * the moment the JVM process was started. Phases are recorded in the order they are
+ * marked, so the report reads as a timeline (e.g. JVM start -> first frame -> fully loaded).
+ */
+public final class StartupTimings {
+
+    // Phase name -> elapsed time since JVM start. LinkedHashMap keeps the timeline order.
+    private static final Map<String, Duration> phases = new LinkedHashMap<>();
+    private static final Instant jvmStart = ProcessHandle.current().info().startInstant().orElse(Instant.now());
+
+    private StartupTimings() {
+    }
+
+    /**
+     * Records that a startup phase has been reached. Only the first mark of a phase is kept.
+     * @param phase A short name for the phase, e.g. "firstFrame".
+     * @return The elapsed time since the JVM was started.
+     */
+    public static synchronized Duration mark(String phase) {
+        Duration elapsed = Duration.between(jvmStart, Instant.now());
+        phases.putIfAbsent(phase, elapsed);
+        System.out.println("StartupTimings: '" + phase + "' reached " + elapsed.toMillis() + " ms after JVM start.");
+        return phases.get(phase);
+    }
+
+    /**
+     * @return An unmodifiable snapshot of the recorded phases, in the order they were reached.
+     */
+    public static synchronized Map<String, Duration> getPhases() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+    }
+
+    /**
+     * Prints a single summary line with every recorded phase, suitable for grepping out of logs
+     * so startup times can be tracked across runs.
+     */
+    public static synchronized void printSummary() {
+        StringBuilder summary = new StringBuilder("StartupTimings: summary");
+        for (Map.Entry<String, Duration> entry : phases.entrySet()) {
+            summary.append(' ').append(entry.getKey()).append('=').append(entry.getValue().toMillis()).append("ms");
+        }
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,453 @@
+package util;
+
+import model.Priority;
+import model.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The TaskArchive class is cold storage for tasks that no longer belong in the working set,
+ * such as completed or long past due tasks.
+ *
+ * Archived tasks are written to append-only, gzip-compressed segment files (one tab-separated line
+ * per task); a segment is written once and never modified. A small segment index (index.tsv) keeps
+ * each segment's record count and the distinct words of its task names, so a search only
+ * decompresses the segments that can contain a match. Segments missing from the index, e.g. after
+ * a crash between writing a segment and indexing it, or whose index line is damaged, are re-indexed
+ * when the archive is opened.
+ *
+ * An archive created with a null directory keeps its compressed segments in memory only.
+ */
+public class TaskArchive {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".tsv.gz";
+    private static final String INDEX_FILE = "index.tsv";
+
+    /**
+     * A task as it was stored in the archive, with the section it was archived from.
+     */
+    public static final class ArchivedTask {
+        private final String sectionName;
+        private final Task task;
+        private final Date archivedDate;
+
+        public ArchivedTask(String sectionName, Task task, Date archivedDate) {
+            this.sectionName = sectionName;
+            this.task = task;
+            this.archivedDate = archivedDate;
+        }
+
+        public String getSectionName() {
+            return sectionName;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+
+        public Date getArchivedDate() {
+            return archivedDate;
+        }
+
+        private String toLine() {
+            return OfflineJournal.escape(sectionName) + "\t" + OfflineJournal.escape(task.getName()) + "\t"
+                    + task.getPriority().name() + "\t" + task.getDueDate().getTime() + "\t"
+                    + (task.isCompleted() ? Long.toString(task.getCompletedDate().getTime()) : "") + "\t"
+                    + archivedDate.getTime();
+        }
+
+        private static ArchivedTask fromLine(String line) {
+            String[] fields = line.split("\t", -1);
+            Task task = new Task(OfflineJournal.unescape(fields[1]), Priority.valueOf(fields[2]),
+                    new Date(Long.parseLong(fields[3])));
+            if (!fields[4].isEmpty()) {
+                task.setCompletedDate(new Date(Long.parseLong(fields[4])));
+            }
+            return new ArchivedTask(OfflineJournal.unescape(fields[0]), task, new Date(Long.parseLong(fields[5])));
+        }
+
+        @Override
+        public String toString() {
+            return task + " [" + sectionName + "]";
+        }
+    }
+
+    // One immutable segment plus its index entry
+    private static final class Segment {
+        final String name;
+        final byte[] data; // Compressed contents for in-memory archives, null when the segment is a file
+        final int recordCount;
+        final NavigableSet<String> terms;
+
+        Segment(String name, byte[] data, int recordCount, NavigableSet<String> terms) {
+            this.name = name;
+            this.data = data;
+            this.recordCount = recordCount;
+            this.terms = terms;
+        }
+
+        boolean mayContainAll(List<String> queryWords) {
+            for (String word : queryWords) {
+                if (!hasTermWithPrefix(terms, word)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String toIndexLine() {
+            return name + "\t" + recordCount + "\t" + String.join(" ", terms);
+        }
+    }
+
+    private final Path directory;
+    private final List<Segment> segments = new ArrayList<>(); // Oldest first
+    private int nextSegmentNumber = 1;
+
+    /**
+     * Opens the archive at the default location, {@code ~/.taskmanager/archive},
+     * unless overridden with the {@code taskmanager.archive.dir} system property.
+     */
+    public TaskArchive() {
+        this(Paths.get(System.getProperty("taskmanager.archive.dir",
+                Paths.get(System.getProperty("user.home"), ".taskmanager", "archive").toString())));
+    }
+
+    public TaskArchive(Path directory) {
+        this.directory = directory;
+        open();
+    }
+
+    private void open() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        // A bad index line only costs that line: its segment is re-indexed by the directory scan below
+        Map<String, Segment> indexed = new LinkedHashMap<>();
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (Files.exists(indexFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        Segment segment = parseIndexLine(line);
+                        // Numbers of discarded segments are not reused either
+                        nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(segment.name) + 1);
+                        if (Files.exists(directory.resolve(segment.name))) {
+                            indexed.put(segment.name, segment); // A later line for the same segment wins
+                        }
+                    } catch (RuntimeException e) {
+                        System.err.println("TaskArchive: Skipping bad line " + lineNumber + " of " + indexFile + ": " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("TaskArchive: Could not read archive index " + indexFile + ": " + e.getMessage());
+            }
+        }
+        indexed.values().forEach(this::addSegment);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file); // A segment that was never completed
+                } else if (segmentNumber(name) < 0) {
+                    System.err.println("TaskArchive: Ignoring unexpected file " + file + ".");
+                } else if (!indexed.containsKey(name)) {
+                    // Even a segment that cannot be read keeps its number
+                    nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(name) + 1);
+                    try {
+                        reindex(name);
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("TaskArchive: Could not re-index segment " + name + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("TaskArchive: Could not list archive segments in " + directory + ": " + e.getMessage());
+        }
+        segments.sort((a, b) -> a.name.compareTo(b.name));
+        if (!segments.isEmpty()) {
+            System.out.println("TaskArchive: Opened " + segments.size() + " segments (" + getArchivedTaskCount()
+                    + " tasks) in " + directory + ".");
+        }
+    }
+
+    private static Segment parseIndexLine(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 3 || segmentNumber(fields[0]) < 0) {
+            throw new IllegalArgumentException("not a segment entry");
+        }
+        NavigableSet<String> terms = new TreeSet<>();
+        Collections.addAll(terms, fields[2].isEmpty() ? new String[0] : fields[2].split(" "));
+        return new Segment(fields[0], null, Integer.parseInt(fields[1]), terms);
+    }
+
+    // The number in a segment file name, or -1 if the name is not a segment's
+    private static int segmentNumber(String name) {
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+        try {
+            return number.isEmpty() || !number.chars().allMatch(Character::isDigit) ? -1 : Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String segmentName(int number) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    private void reindex(String segmentName) throws IOException {
+        List<ArchivedTask> records;
+        try (InputStream in = Files.newInputStream(directory.resolve(segmentName))) {
+            records = readSegment(in);
+        }
+        Segment segment = new Segment(segmentName, null, records.size(), termsOf(records));
+        addSegment(segment);
+        appendIndexLine(segment);
+        System.out.println("TaskArchive: Re-indexed segment " + segmentName + " (" + records.size() + " tasks).");
+    }
+
+    private void addSegment(Segment segment) {
+        segments.add(segment);
+        nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(segment.name) + 1);
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public synchronized int getArchivedTaskCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.recordCount;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the tasks to a new segment and indexes it. The segment file is complete before it
+     * becomes visible, so a crash never leaves a partially written segment behind.
+     * @param tasks The tasks to archive; must not be empty.
+     * @return The name of the new segment once the tasks are safely archived, or null if the
+     *         segment could not be written.
+     */
+    public synchronized String append(List<ArchivedTask> tasks) {
+        // Never replace an existing segment, e.g. one that could not be read when the archive was opened
+        while (directory != null && Files.exists(directory.resolve(segmentName(nextSegmentNumber)))) {
+            nextSegmentNumber++;
+        }
+        String name = segmentName(nextSegmentNumber);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeSegment(bytes, tasks);
+            byte[] data = bytes.toByteArray();
+            Segment segment;
+            if (directory == null) {
+                segment = new Segment(name, data, tasks.size(), termsOf(tasks));
+            } else {
+                Files.createDirectories(directory);
+                Path temp = directory.resolve(name + ".tmp");
+                Files.write(temp, data);
+                Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+                segment = new Segment(name, null, tasks.size(), termsOf(tasks));
+                appendIndexLine(segment);
+            }
+            addSegment(segment);
+            System.out.println("TaskArchive: Archived " + tasks.size() + " tasks to " + name + " (" + data.length + " bytes).");
+            return name;
+        } catch (IOException e) {
+            System.err.println("TaskArchive: Could not write archive segment " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Takes back a segment written by {@link #append}, for when its tasks could not be removed from
+     * the working set after all. Its number is not reused.
+     * @return true if the segment is gone, false if its file could not be deleted.
+     */
+    public synchronized boolean discard(String segmentName) {
+        if (!segments.removeIf(segment -> segment.name.equals(segmentName))) {
+            return true;
+        }
+        if (directory == null) {
+            return true;
+        }
+        try {
+            Files.deleteIfExists(directory.resolve(segmentName));
+        } catch (IOException e) {
+            System.err.println("TaskArchive: Could not delete archive segment " + segmentName + ": " + e.getMessage());
+            return false;
+        }
+        try {
+            // Best effort: open() skips index lines whose segment file is missing
+            rewriteIndex();
+        } catch (IOException e) {
+            System.err.println("TaskArchive: Could not rewrite archive index: " + e.getMessage());
+        }
+        System.out.println("TaskArchive: Discarded segment " + segmentName + ".");
+        return true;
+    }
+
+    /**
+     * Searches archived tasks whose names contain every word of the query, as a whole word or a
+     * word prefix (case-insensitive). Only segments whose index has all query words are read.
+     * @return Matching tasks, most recently archived segments first.
+     */
+    public List<ArchivedTask> search(String query, int limit) {
+        List<String> queryWords = new ArrayList<>(termsOf(query));
+        List<ArchivedTask> results = new ArrayList<>();
+        if (queryWords.isEmpty() || limit <= 0) {
+            return results;
+        }
+        List<Segment> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+        }
+        // Segments are immutable, so they can be read without holding the lock
+        int segmentsRead = 0;
+        for (int i = snapshot.size() - 1; i >= 0 && results.size() < limit; i--) {
+            Segment segment = snapshot.get(i);
+            if (!segment.mayContainAll(queryWords)) {
+                continue;
+            }
+            segmentsRead++;
+            try (InputStream in = segment.data != null
+                    ? new ByteArrayInputStream(segment.data)
+                    : Files.newInputStream(directory.resolve(segment.name))) {
+                for (ArchivedTask archived : readSegment(in)) {
+                    if (matchesAllWords(archived.getTask().getName(), queryWords)) {
+                        results.add(archived);
+                        if (results.size() >= limit) {
+                            break;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("TaskArchive: Could not read archive segment " + segment.name + ": " + e.getMessage());
+            }
+        }
+        System.out.println("TaskArchive: search('" + query + "') read " + segmentsRead + " of " + snapshot.size()
+                + " segments, found " + results.size() + " tasks.");
+        return results;
+    }
+
+    private void appendIndexLine(Segment segment) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(segment.toIndexLine());
+            writer.newLine();
+        }
+    }
+
+    private void rewriteIndex() throws IOException {
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Segment segment : segments) {
+                writer.write(segment.toIndexLine());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeSegment(OutputStream out, List<ArchivedTask> tasks) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(out), StandardCharsets.UTF_8))) {
+            for (ArchivedTask task : tasks) {
+                writer.write(task.toLine());
+                writer.newLine();
+            }
+        }
+    }
+
+    private static List<ArchivedTask> readSegment(InputStream in) throws IOException {
+        List<ArchivedTask> tasks = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(in), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+                tasks.add(ArchivedTask.fromLine(line));
+            }
+        }
+        return tasks;
+    }
+
+    private static NavigableSet<String> termsOf(List<ArchivedTask> tasks) {
+        NavigableSet<String> terms = new TreeSet<>();
+        for (ArchivedTask task : tasks) {
+            terms.addAll(termsOf(task.getTask().getName()));
+        }
+        return terms;
+    }
+
+    private static boolean matchesAllWords(String name, List<String> queryWords) {
+        NavigableSet<String> nameTerms = termsOf(name);
+        for (String word : queryWords) {
+            if (!hasTermWithPrefix(nameTerms, word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasTermWithPrefix(NavigableSet<String> terms, String prefix) {
+        String candidate = terms.ceiling(prefix);
+        return candidate != null && candidate.startsWith(prefix);
+    }
+
+    // Lower-cased runs of letters and digits
+    static NavigableSet<String> termsOf(String text) {
+        NavigableSet<String> terms = new TreeSet<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,74 @@
+package util;
+
+import model.Section;
+import model.Task;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The TaskStore interface is the persistence contract TaskManager relies on.
+ * {@link DatabaseManager} implements it on top of MySQL; {@link InMemoryTaskStore} is a local,
+ * network-free implementation used for headless runs such as the load-test driver.
+ *
+ * Implementations report an outage by throwing {@link DatabaseUnavailableException}; ordinary
+ * rejections (duplicate section, unknown task) are reported through -1/false return values.
+ */
+public interface TaskStore {
+
+    /**
+     * @return The ID of the newly inserted section, or -1 if insertion failed or the section already exists.
+     */
+    int saveSection(String sectionName);
+
+    /**
+     * @return Section names mapped to Section objects (without tasks), in insertion order.
+     */
+    Map<String, Section> loadAllSections();
+
+    /**
+     * Deletes a section and all of its tasks.
+     * @return true if the section was deleted, false otherwise.
+     */
+    boolean deleteSection(String sectionName);
+
+    /**
+     * @return The ID of the saved task, or -1 if it failed (e.g. the section does not exist).
+     */
+    int saveTask(Task task, String sectionName);
+
+    List<Task> loadTasksForSection(String sectionName);
+
+    /**
+     * Deletes the tasks with the given name from a section.
+     * @return true if at least one task was deleted, false otherwise.
+     */
+    boolean deleteTask(String taskName, String sectionName);
+
+    /**
+     * Deletes tasks of several sections in a single call (e.g. when they are archived), all or none.
+     * @param taskNamesBySection The names of the tasks to delete, keyed by section name.
+     * @return The number of tasks deleted (0 if the store had none of them), or -1 if the delete
+     *         failed and nothing was deleted.
+     */
+    int deleteTasks(Map<String, ? extends Collection<String>> taskNamesBySection);
+
+    /**
+     * Marks the open tasks with the given name in a section as completed.
+     * @return true if at least one task was marked, false otherwise.
+     */
+    boolean completeTask(String taskName, String sectionName, Date completedDate);
+
+    /**
+     * @return true if calls are expected to reach the store.
+     */
+    boolean isAvailable();
+
+    /**
+     * Checks whether the store is reachable. May block; never call it from the UI thread.
+     * @return true if the store answered.
+     */
+    boolean probe();
+}